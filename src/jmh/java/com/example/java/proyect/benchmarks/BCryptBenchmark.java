@@ -0,0 +1,86 @@
+package com.example.java.proyect.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import com.example.java.proyect.service.HashingSaturadoException;
+import com.example.java.proyect.service.PasswordHashingService;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * ⏱️ Costo de CPU de un login: BCryptPasswordEncoder.matches según el factor de trabajo.
+ * - loginPorNucleo: en modo Throughput con un hilo da directamente "logins por segundo por núcleo".
+ * - loginConPool: 128 clientes a la vez contra PasswordHashingService (un hilo por núcleo, cola de 64).
+ *   El throughput no pasa de núcleos × loginPorNucleo; lo que excede se rechaza (→ 429) en vez de
+ *   acumularse. Los contadores loginConPool:atendidos y :rechazados separan unos de otros.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 3)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+public class BCryptBenchmark {
+
+    @Param({ "10", "12" })
+    public int strength;
+
+    private BCryptPasswordEncoder encoder;
+    private String hash;
+    private PasswordHashingService pool;
+
+    @Setup
+    public void preparar() {
+        encoder = new BCryptPasswordEncoder(strength);
+        hash = encoder.encode("41961863David");
+        pool = new PasswordHashingService(encoder, 0, 64, new SimpleMeterRegistry());
+    }
+
+    @TearDown
+    public void cerrar() {
+        pool.cerrar();
+    }
+
+    @Benchmark
+    public boolean loginPorNucleo() {
+        return encoder.matches("41961863David", hash);
+    }
+
+    @Benchmark
+    @Threads(128)
+    public void loginConPool(Resultados resultados, Blackhole bh) throws InterruptedException {
+        try {
+            bh.consume(pool.verificar("41961863David", hash));
+            resultados.atendidos++;
+        } catch (HashingSaturadoException e) {
+            // El cliente recibiría 429 y reintentaría un rato después
+            resultados.rechazados++;
+            Thread.sleep(10);
+        }
+    }
+
+    // 📊 Logins atendidos y rechazados por segundo (JMH los suma entre hilos)
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Resultados {
+        public long atendidos;
+        public long rechazados;
+    }
+}
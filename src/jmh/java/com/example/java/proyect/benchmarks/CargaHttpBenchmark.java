@@ -0,0 +1,104 @@
+package com.example.java.proyect.benchmarks;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.example.java.proyect.JavaProyectApplication;
+import com.example.java.proyect.config.JWTUtil;
+
+/**
+ * 🏋️ Prueba de carga HTTP: 1000 clientes concurrentes contra la app levantada en un puerto libre.
+ * Compara Tomcat con hilos virtuales contra el pool clásico de hilos de plataforma.
+ *
+ * Cada operación es un GET /tickets/pagina completo: JWT, control de admisión, consulta a la base
+ * (H2, pool de 10 conexiones) y serialización JSON.
+ * - Mode.Throughput: peticiones por segundo.
+ * - Mode.SampleTime: distribución de latencia (JMH informa p50, p90, p99, p99.9).
+ *
+ * Ejecutar: mvn -Pbenchmarks test-compile exec:exec -Djmh.args="CargaHttp"
+ * Menos clientes: -Djmh.args="CargaHttp -t 200"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Threads(1000)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Fork(value = 1, jvmArgs = { "-Xmx2g", "-Djdk.httpclient.connectionPoolSize=1000" })
+public class CargaHttpBenchmark {
+
+    @Param({ "true", "false" })
+    public boolean hilosVirtuales;
+
+    private ConfigurableApplicationContext contexto;
+    private HttpClient cliente;
+    private HttpRequest pedido;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        contexto = new SpringApplicationBuilder(JavaProyectApplication.class)
+                .profiles("test")
+                // Como argumentos (no .properties()) para que pisen application.properties
+                .run("--server.port=0",
+                        "--spring.threads.virtual.enabled=" + hilosVirtuales,
+                        "--server.tomcat.accept-count=1000",       // Que el SO no rechace conexiones en modo plataforma
+                        "--web.admision.espera-ms=30000");        // Medimos la cola, no los 503
+
+        JdbcTemplate jdbc = contexto.getBean(JdbcTemplate.class);
+        List<Object[]> tickets = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            tickets.add(new Object[] { i + 1L, "cliente" + i + "@test.com", "pendiente", false, 0L });
+        }
+        jdbc.batchUpdate("INSERT INTO ticket_model (id, cliente_email, estado, notificar_cliente, version) VALUES (?, ?, ?, ?, ?)", tickets);
+
+        int puerto = ((WebServerApplicationContext) contexto).getWebServer().getPort();
+        cliente = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        pedido = HttpRequest.newBuilder(URI.create("http://localhost:" + puerto + "/tickets/pagina?tamanio=20"))
+                .header("Authorization", "Bearer " + JWTUtil.generateToken("carga@test.com", "ROLE_ADMIN"))
+                .GET()
+                .build();
+    }
+
+    @TearDown(Level.Trial)
+    public void cerrar() {
+        cliente.close();
+        contexto.close();
+    }
+
+    @Benchmark
+    public int paginaDeTickets() throws Exception {
+        HttpResponse<byte[]> respuesta = cliente.send(pedido, HttpResponse.BodyHandlers.ofByteArray());
+        if (respuesta.statusCode() != 200) {
+            throw new IllegalStateException("HTTP " + respuesta.statusCode());
+        }
+        return respuesta.body().length;
+    }
+}
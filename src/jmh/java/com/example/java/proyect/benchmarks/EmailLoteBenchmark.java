@@ -0,0 +1,105 @@
+package com.example.java.proyect.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.example.java.proyect.models.requests.TicketModel;
+import com.example.java.proyect.service.EmailService;
+import com.icegreen.greenmail.util.GreenMail;
+import com.icegreen.greenmail.util.ServerSetupTest;
+
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+
+/**
+ * 📮 Enviar N emails de a uno (una conexión SMTP por email, como antes de la bandeja de
+ * salida) contra enviarLote (una conexión para todos), con GreenMail como servidor local.
+ *
+ * GreenMail corre en la misma máquina y sin TLS ni AUTH: la diferencia real contra Gmail
+ * (handshake TCP + STARTTLS + AUTH en cada conexión) es bastante mayor que la medida acá.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EmailLoteBenchmark {
+
+    // Emails por ronda (email.outbox.lote reparte 50 entre las conexiones)
+    @Param({ "10", "50" })
+    public int cantidad;
+
+    private GreenMail smtp;
+    private final EmailService emailService = new EmailService();
+    private List<MimeMessage> mensajes;
+
+    @Setup
+    public void arrancarSmtp() throws MessagingException {
+        smtp = new GreenMail(ServerSetupTest.SMTP.dynamicPort());
+        smtp.start();
+
+        JavaMailSenderImpl mailSender = new JavaMailSenderImpl();
+        mailSender.setHost("localhost");
+        mailSender.setPort(smtp.getSmtp().getPort());
+        ReflectionTestUtils.setField(emailService, "mailSender", mailSender);
+
+        mensajes = new ArrayList<>();
+        for (int i = 0; i < cantidad; i++) {
+            mensajes.add(emailService.crearMensajeHtml("cliente" + i + "@test.com", "Ticket #" + i,
+                    emailService.construirCuerpoEmail(ticket(i))));
+        }
+    }
+
+    // GreenMail guarda todo en memoria: se vacía entre iteraciones
+    @TearDown(Level.Iteration)
+    public void vaciarBuzones() throws Exception {
+        smtp.purgeEmailFromAllMailboxes();
+    }
+
+    @TearDown
+    public void pararSmtp() {
+        smtp.stop();
+    }
+
+    @Benchmark
+    public int unoPorConexion() {
+        int fallidos = 0;
+        for (MimeMessage mensaje : mensajes) {
+            fallidos += emailService.enviarLote(List.of(mensaje)).size();
+        }
+        return fallidos;
+    }
+
+    @Benchmark
+    public Map<MimeMessage, Exception> enLote() {
+        return emailService.enviarLote(mensajes);
+    }
+
+    private static TicketModel ticket(int id) {
+        TicketModel ticket = new TicketModel();
+        ticket.setId((long) id);
+        ticket.setEstado("listo");
+        ticket.setSolucion("Cambio de fuente de alimentación");
+        ticket.setPrecio(45999.5);
+        return ticket;
+    }
+}
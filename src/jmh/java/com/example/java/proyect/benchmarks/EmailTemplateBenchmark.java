@@ -0,0 +1,53 @@
+package com.example.java.proyect.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.example.java.proyect.models.requests.TicketModel;
+import com.example.java.proyect.service.EmailService;
+
+/**
+ * ⏱️ Costo de armar el HTML del email de actualización.
+ * Correr con "-prof gc" para ver los bytes asignados por render (gc.alloc.rate.norm).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EmailTemplateBenchmark {
+
+    @Param({ "pendiente", "listo", "otro" })
+    public String estado;
+
+    // construirCuerpoEmail no usa el JavaMailSender, así que no hace falta el contexto de Spring
+    private final EmailService emailService = new EmailService();
+    private TicketModel ticket;
+
+    @Setup
+    public void preparar() {
+        ticket = new TicketModel();
+        ticket.setId(1234L);
+        ticket.setEstado(estado);
+        ticket.setSolucion("Cambio de fuente de alimentación y limpieza <general>");
+        ticket.setPrecio(45999.5);
+        ticket.setPrioridad("Alta");
+    }
+
+    @Benchmark
+    public String construirCuerpoEmail() {
+        return emailService.construirCuerpoEmail(ticket);
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.java.proyect.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.example.java.proyect.config.JWTUtil;
+
+import io.jsonwebtoken.Claims;
+
+/**
+ * ⏱️ Costo de crear y verificar tokens JWT.
+ * - generateToken: firma HS512 de un token nuevo (login).
+ * - getClaims: parseo + verificación de firma completa (sin caché).
+ * - validarCacheado: camino del filtro cuando el token ya se verificó antes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtBenchmark {
+
+    private String token;
+
+    @Setup
+    public void preparar() {
+        token = JWTUtil.generateToken("cliente@test.com", "ROLE_CLIENTE");
+        JWTUtil.validar(token); // lo deja en el caché
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return JWTUtil.generateToken("cliente@test.com", "ROLE_CLIENTE");
+    }
+
+    @Benchmark
+    public Claims getClaims() {
+        return JWTUtil.getClaims(token);
+    }
+
+    @Benchmark
+    public JWTUtil.TokenValidado validarCacheado() {
+        return JWTUtil.validar(token);
+    }
+}
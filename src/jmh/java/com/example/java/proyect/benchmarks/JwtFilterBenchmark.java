@@ -0,0 +1,56 @@
+package com.example.java.proyect.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import com.example.java.proyect.config.JWTAuthorizationFilter;
+import com.example.java.proyect.config.JWTUtil;
+import com.example.java.proyect.config.SecurityConstants;
+
+/**
+ * ⏱️ Costo de punta a punta del filtro JWT para un request autenticado
+ * (leer el header, validar el token y cargar la autenticación en el contexto).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtFilterBenchmark {
+
+    private final JWTAuthorizationFilter filtro = new JWTAuthorizationFilter();
+    private String header;
+
+    @Setup
+    public void preparar() {
+        header = SecurityConstants.TOKEN_PREFIX + " " + JWTUtil.generateToken("cliente@test.com", "ROLE_CLIENTE");
+    }
+
+    @Benchmark
+    public Object requestAutenticado() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/tickets/estadisticas");
+        request.setServletPath("/tickets/estadisticas");
+        request.addHeader(SecurityConstants.HEADER_STRING, header);
+
+        filtro.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+
+        Object autenticacion = SecurityContextHolder.getContext().getAuthentication();
+        SecurityContextHolder.clearContext();
+        return autenticacion;
+    }
+}
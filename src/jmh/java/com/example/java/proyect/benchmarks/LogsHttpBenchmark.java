@@ -0,0 +1,115 @@
+package com.example.java.proyect.benchmarks;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.example.java.proyect.JavaProyectApplication;
+import com.example.java.proyect.config.JWTUtil;
+
+/**
+ * 📝 Cuánto le cuestan los logs al throughput HTTP: 200 clientes concurrentes haciendo
+ * GET /tickets/pagina contra la app levantada en un puerto libre.
+ *
+ * - apagados: sin ningún log (root=OFF), la referencia.
+ * - info:     configuración normal (solo INFO, casi nada por petición).
+ * - debug:    Spring Security y Spring MVC en DEBUG: varias líneas por petición, como
+ *             cuando el DEBUG de seguridad estaba prendido para todos.
+ * Todos pasan por la cola asincrónica de logback-spring.xml; "json" usa la salida JSON de prod.
+ *
+ * Ejecutar: mvn -Pbenchmarks test-compile exec:exec -Djmh.args="LogsHttp"
+ * (conviene redirigir la salida: -Djmh.args="LogsHttp -o target/logs-http.txt")
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Threads(200)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Fork(value = 1, jvmArgs = { "-Xmx2g", "-Djdk.httpclient.connectionPoolSize=200" })
+public class LogsHttpBenchmark {
+
+    @Param({ "apagados", "info", "debug" })
+    public String logs;
+
+    @Param({ "texto", "json" })
+    public String formato;
+
+    private ConfigurableApplicationContext contexto;
+    private HttpClient cliente;
+    private HttpRequest pedido;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        List<String> argumentos = new ArrayList<>(List.of("--server.port=0", "--web.admision.espera-ms=30000"));
+        switch (logs) {
+            case "apagados" -> argumentos.add("--logging.level.root=OFF");
+            case "debug" -> {
+                argumentos.add("--logging.level.org.springframework.security=DEBUG");
+                argumentos.add("--logging.level.org.springframework.web=DEBUG");
+            }
+            default -> { }
+        }
+
+        contexto = new SpringApplicationBuilder(JavaProyectApplication.class)
+                .profiles("json".equals(formato) ? new String[] { "test", "json" } : new String[] { "test" })
+                // Como argumentos (no .properties()) para que pisen application.properties
+                .run(argumentos.toArray(String[]::new));
+
+        JdbcTemplate jdbc = contexto.getBean(JdbcTemplate.class);
+        List<Object[]> tickets = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            tickets.add(new Object[] { i + 1L, "cliente" + i + "@test.com", "pendiente", false, 0L });
+        }
+        jdbc.batchUpdate("INSERT INTO ticket_model (id, cliente_email, estado, notificar_cliente, version) VALUES (?, ?, ?, ?, ?)", tickets);
+
+        int puerto = ((WebServerApplicationContext) contexto).getWebServer().getPort();
+        cliente = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        pedido = HttpRequest.newBuilder(URI.create("http://localhost:" + puerto + "/tickets/pagina?tamanio=20"))
+                .header("Authorization", "Bearer " + JWTUtil.generateToken("carga@test.com", "ROLE_ADMIN"))
+                .GET()
+                .build();
+    }
+
+    @TearDown(Level.Trial)
+    public void cerrar() {
+        cliente.close();
+        contexto.close();
+    }
+
+    @Benchmark
+    public int paginaDeTickets() throws Exception {
+        HttpResponse<byte[]> respuesta = cliente.send(pedido, HttpResponse.BodyHandlers.ofByteArray());
+        if (respuesta.statusCode() != 200) {
+            throw new IllegalStateException("HTTP " + respuesta.statusCode());
+        }
+        return respuesta.body().length;
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.java.proyect.benchmarks;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.example.java.proyect.JavaProyectApplication;
+import com.example.java.proyect.TicketRepository;
+import com.example.java.proyect.models.requests.TicketModel;
+import com.example.java.proyect.models.responses.TicketMasivoRest;
+import com.example.java.proyect.service.TicketService;
+
+/**
+ * ⏱️ Alta de N tickets: uno por uno (POST /tickets → crearTicket) contra la importación masiva
+ * (POST /tickets/importar → importarTickets, INSERT en lotes JDBC con IDs por bloques).
+ *
+ * Contra H2 en memoria la diferencia es solo de CPU (transacciones y sentencias); contra MySQL
+ * se suma la ida y vuelta por red de cada INSERT, que es donde más pesa el camino por fila.
+ * Para medir contra MySQL: -Djmh.args="TicketImport -jvmArgsAppend -Dspring.profiles.active=default"
+ * con DB_HOST/DB_PORT/... apuntando a una base de pruebas.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+public class TicketImportBenchmark {
+
+    @Param({ "5000" })
+    public int tickets;
+
+    private ConfigurableApplicationContext contexto;
+    private TicketService ticketService;
+    private TicketRepository ticketRepository;
+    private byte[] ndjson;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        contexto = new SpringApplicationBuilder(JavaProyectApplication.class)
+                .profiles(System.getProperty("spring.profiles.active", "test"))
+                .run("--server.port=0", "--spring.jpa.show-sql=false");
+        ticketService = contexto.getBean(TicketService.class);
+        ticketRepository = contexto.getBean(TicketRepository.class);
+
+        StringBuilder cuerpo = new StringBuilder();
+        for (int i = 0; i < tickets; i++) {
+            cuerpo.append("{\"clienteEmail\":\"cliente").append(i % 500)
+                    .append("@test.com\",\"estado\":\"pendiente\",\"descripcionProblema\":\"No enciende\"}\n");
+        }
+        ndjson = cuerpo.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Setup(Level.Iteration)
+    public void vaciar() {
+        ticketRepository.deleteAllInBatch();
+    }
+
+    @TearDown(Level.Trial)
+    public void cerrar() {
+        contexto.close();
+    }
+
+    @Benchmark
+    public long unoPorUno() {
+        for (int i = 0; i < tickets; i++) {
+            TicketModel ticket = new TicketModel();
+            ticket.setClienteEmail("cliente" + (i % 500) + "@test.com");
+            ticket.setEstado("pendiente");
+            ticket.setDescripcionProblema("No enciende");
+            ticketService.crearTicket(ticket);
+        }
+        return tickets;
+    }
+
+    @Benchmark
+    public TicketMasivoRest importacionMasiva() throws Exception {
+        return ticketService.importarTickets(new ByteArrayInputStream(ndjson), false);
+    }
+}
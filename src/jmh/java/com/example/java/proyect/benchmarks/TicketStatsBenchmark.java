@@ -0,0 +1,110 @@
+package com.example.java.proyect.benchmarks;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.example.java.proyect.JavaProyectApplication;
+import com.example.java.proyect.TicketRepository;
+import com.example.java.proyect.service.TicketService;
+import com.example.java.proyect.service.TicketStatsCache;
+
+/**
+ * ⏱️ Estadísticas del dashboard contra una base H2 embebida con N tickets sintéticos.
+ * - obtenerEstadisticas / obtenerTicketsPorMes: lo que atiende el endpoint (contadores en memoria).
+ * - contarPorEstado / contarPorMes: las consultas GROUP BY que usa la carga y la reconciliación.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+public class TicketStatsBenchmark {
+
+    private static final String[] ESTADOS = { "pendiente", "en reparación", "listo", "resuelto" };
+
+    @Param({ "10000", "100000", "1000000" })
+    public int tickets;
+
+    private ConfigurableApplicationContext contexto;
+    private TicketService ticketService;
+    private TicketRepository ticketRepository;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        contexto = new SpringApplicationBuilder(JavaProyectApplication.class)
+                .profiles("test")
+                .run("--server.port=0"); // La seguridad necesita el contexto web; puerto libre cualquiera
+        ticketService = contexto.getBean(TicketService.class);
+        ticketRepository = contexto.getBean(TicketRepository.class);
+
+        // Carga masiva por JDBC: mucho más rápida que pasar por JPA
+        JdbcTemplate jdbc = contexto.getBean(JdbcTemplate.class);
+        LocalDate hoy = LocalDate.now();
+        List<Object[]> lote = new ArrayList<>();
+        for (int i = 0; i < tickets; i++) {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            lote.add(new Object[] { i + 1L, "cliente" + (i % 5000) + "@test.com", ESTADOS[random.nextInt(ESTADOS.length)],
+                    Date.valueOf(hoy.minusDays(random.nextInt(730))), false, 0L });
+            if (lote.size() == 10_000) {
+                insertar(jdbc, lote);
+            }
+        }
+        insertar(jdbc, lote);
+
+        contexto.getBean(TicketStatsCache.class).reconciliar();
+    }
+
+    private static void insertar(JdbcTemplate jdbc, List<Object[]> lote) {
+        jdbc.batchUpdate("INSERT INTO ticket_model (id, cliente_email, estado, fecha_creacion, notificar_cliente, version) VALUES (?, ?, ?, ?, ?, ?)", lote);
+        lote.clear();
+    }
+
+    @TearDown(Level.Trial)
+    public void cerrar() {
+        contexto.close();
+    }
+
+    @Benchmark
+    public Map<String, Long> obtenerEstadisticas() {
+        return ticketService.obtenerEstadisticas();
+    }
+
+    @Benchmark
+    public List<Map<String, Object>> obtenerTicketsPorMes() {
+        return ticketService.obtenerTicketsPorMes();
+    }
+
+    @Benchmark
+    public Object contarPorEstadoSql() {
+        return ticketRepository.contarPorEstado();
+    }
+
+    @Benchmark
+    public Object contarPorMesSql() {
+        LocalDate hoy = LocalDate.now();
+        return ticketRepository.contarPorMes(hoy.minusMonths(11).withDayOfMonth(1), hoy.plusMonths(1).withDayOfMonth(1));
+    }
+}
@@ -2,6 +2,8 @@ package com.example.java.proyect;
 
 import java.util.UUID;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -12,6 +14,8 @@ import com.example.java.proyect.entities.UserEntity;
 @Configuration
 public class DataInitializer {
 
+    private static final Logger log = LoggerFactory.getLogger(DataInitializer.class);
+
     @Bean
     public CommandLineRunner initAdminUser(UserRepository userRepository, BCryptPasswordEncoder passwordEncoder) {
         return args -> {
@@ -28,9 +32,9 @@ public class DataInitializer {
                 admin.setRole("ROLE_ADMIN");
 
                 userRepository.save(admin);
-                System.out.println("✅ Usuario administrador creado automáticamente");
+                log.info("✅ Usuario administrador creado automáticamente");
             } else {
-                System.out.println("ℹ️ El usuario administrador ya existe");
+                log.info("ℹ️ El usuario administrador ya existe");
             }
         };
     }
@@ -0,0 +1,39 @@
+package com.example.java.proyect;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.stereotype.Repository;
+
+import com.example.java.proyect.entities.EmailOutboxEntity;
+
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+
+/**
+ * Acceso a la bandeja de salida de emails (tabla email_outbox).
+ */
+@Repository
+public interface EmailOutboxRepository extends JpaRepository<EmailOutboxEntity, Long> {
+
+    /**
+     * Toma un lote de emails listos para enviar, bloqueando las filas.
+     * Incluye los ENVIANDO cuyo plazo venció (el dispatcher que los tenía se cayó).
+     * El timeout -2 le indica a Hibernate que use SKIP LOCKED: si hay varias réplicas,
+     * cada una toma filas distintas en lugar de esperar o enviar duplicados.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    List<EmailOutboxEntity> findByEstadoInAndProximoIntentoLessThanEqualOrderByIdAsc(
+            Collection<EmailOutboxEntity.Estado> estados, Instant ahora, Limit limit);
+
+    /**
+     * Cantidad de emails en los estados indicados (para la métrica de profundidad de la cola).
+     */
+    long countByEstadoIn(Collection<EmailOutboxEntity.Estado> estados);
+}
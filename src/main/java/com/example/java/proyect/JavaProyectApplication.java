@@ -1,21 +1,29 @@
 package com.example.java.proyect;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.boot.SpringApplication;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.annotation.Bean;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 
 @SpringBootApplication
+@EnableScheduling // ⏱️ Habilita los jobs periódicos (@Scheduled)
 public class JavaProyectApplication {
 
+    private static final Logger log = LoggerFactory.getLogger(JavaProyectApplication.class);
+
     public static void main(String[] args) {
         SpringApplication.run(JavaProyectApplication.class, args);
-        System.out.println("funcionando");
+        log.info("funcionando");
     }
 
     // ✅ Bean necesario para encriptar contraseñas con BCrypt
+    // La fuerza (factor de trabajo) es configurable: los hashes más débiles se actualizan solos al loguearse
     @Bean
-    public BCryptPasswordEncoder bCryptPasswordEncoder() {
-        return new BCryptPasswordEncoder();
+    public BCryptPasswordEncoder bCryptPasswordEncoder(@Value("${seguridad.bcrypt.fuerza:10}") int fuerza) {
+        return new BCryptPasswordEncoder(fuerza);
     }
 }
@@ -1,11 +1,30 @@
 package com.example.java.proyect;
 
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
+import org.hibernate.jpa.AvailableHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.example.java.proyect.models.requests.TicketModel;
+import com.example.java.proyect.share.dto.EstadoConteo;
+import com.example.java.proyect.share.dto.MesConteo;
+import com.example.java.proyect.share.dto.TicketEstadoResumen;
+
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
 
 /**
  * Interfaz que extiende JpaRepository y permite operaciones CRUD automáticas.
@@ -97,11 +116,97 @@ otro ejemplo
 └──────────────────────────────┘
  */
 @Repository
-public interface TicketRepository extends JpaRepository<TicketModel, Long> {
+public interface TicketRepository extends JpaRepository<TicketModel, Long>, JpaSpecificationExecutor<TicketModel> {
 
     // Busca todos los tickets asociados a un email de cliente
     //List<TicketModel> findByClienteEmail(String clienteEmail);
 List<TicketModel> findByClienteEmailIgnoreCase(String clienteEmail);
+
+    /**
+     * 🔎 Tickets de un cliente por email ya normalizado (ver TicketModel.normalizarEmail).
+     * Igualdad exacta sobre columna indexada: no recorre la tabla como el IgnoreCase.
+     */
+    List<TicketModel> findByClienteEmailNormalizado(String clienteEmailNormalizado);
+
+    /**
+     * 📊 Cuenta los tickets agrupados por estado directamente en MySQL (GROUP BY).
+     * Devuelve una fila por estado, sin cargar ninguna entidad en memoria.
+     */
+    @Query("SELECT LOWER(t.estado) AS estado, COUNT(t) AS total FROM TicketModel t GROUP BY LOWER(t.estado)")
+    List<EstadoConteo> contarPorEstado();
+
+    /**
+     * 📈 Cuenta los tickets creados por año y mes dentro de [desde, hasta).
+     * El filtro por rango usa el índice de fechaCreacion y devuelve una fila por mes.
+     */
+    @Query("SELECT YEAR(t.fechaCreacion) AS anio, MONTH(t.fechaCreacion) AS mes, COUNT(t) AS total "
+            + "FROM TicketModel t "
+            + "WHERE t.fechaCreacion >= :desde AND t.fechaCreacion < :hasta "
+            + "GROUP BY YEAR(t.fechaCreacion), MONTH(t.fechaCreacion)")
+    List<MesConteo> contarPorMes(@Param("desde") LocalDate desde, @Param("hasta") LocalDate hasta);
+
+    /**
+     * 📄 Paginación por cursor (keyset): trae los siguientes tickets con id mayor al indicado.
+     * Usa la clave primaria, así que el costo no crece con el número de página.
+     */
+    List<TicketModel> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+    /**
+     * 🌊 Recorre todos los tickets como Stream, leyendo de a bloques desde MySQL
+     * (cursor del lado del servidor gracias a useCursorFetch en la URL de conexión).
+     * Debe usarse dentro de una transacción y cerrarse al terminar.
+     */
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "500"))
+    @Query("SELECT t FROM TicketModel t ORDER BY t.id")
+    Stream<TicketModel> streamTodos();
+
+    /**
+     * 📋 Estado actual, dueño y preferencia de aviso de varios tickets (sin cargar entidades).
+     * SELECT ... FOR UPDATE: las filas quedan bloqueadas hasta el commit, así el estado leído
+     * sigue siendo el de la base cuando se hace el UPDATE (historial y estadísticas con el
+     * "desde" correcto). Ordenado por id para que dos cambios masivos bloqueen en el mismo orden.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    List<TicketEstadoResumen> findResumenByIdInOrderByIdAsc(Collection<Long> ids);
+
+    /**
+     * 🗄️ "Tabla" que se declara en los UPDATE directos sobre ticket_model (hint de Hibernate).
+     *
+     * Hibernate no sabe qué filas toca un UPDATE masivo: con JPQL/Criteria (o SQL sin tablas
+     * declaradas) vacía la región "tickets" entera de la caché de segundo nivel, y con cada
+     * cambio de estado masivo o PATCH todos los demás findById volvían a MySQL. Declarando un
+     * nombre que no es de ninguna entidad no se vacía nada: quien hace el UPDATE saca de la
+     * caché solo los IDs que cambió (TicketService.sacarDeSegundoNivel, y después del commit
+     * InvalidacionEntreReplicas). Contra: no hay consultas cacheables sobre ticket_model, y si
+     * se agregara alguna no se enteraría de estos UPDATE.
+     */
+    String SIN_REGION = "ticket_model_update_directo";
+
+    /**
+     * 🔁 Cambia el estado de varios tickets en una sola sentencia UPDATE.
+     * Las fechas de cada etapa se completan solo si estaban vacías: se pasa la fecha de hoy
+     * en la etapa que corresponde al nuevo estado y null en las demás (COALESCE las deja igual).
+     * Los tickets que ya tenían ese estado no se tocan. Incrementa la versión (bloqueo optimista).
+     * SQL nativo para no vaciar la región "tickets" (ver SIN_REGION): los IDs los saca el que llama.
+     * @return cantidad de tickets modificados
+     */
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_NATIVE_SPACES, value = SIN_REGION))
+    @Query(value = "UPDATE ticket_model SET estado = :estado, version = version + 1, estado_desde = :ahora, "
+            + "fecha_pendiente = COALESCE(fecha_pendiente, :fechaPendiente), "
+            + "fecha_reparacion = COALESCE(fecha_reparacion, :fechaReparacion), "
+            + "fecha_listo = COALESCE(fecha_listo, :fechaListo) "
+            + "WHERE id IN (:ids) AND (estado IS NULL OR LOWER(estado) <> LOWER(:estado))", nativeQuery = true)
+    int actualizarEstado(@Param("ids") Collection<Long> ids, @Param("estado") String estado, @Param("ahora") Instant ahora,
+                         @Param("fechaPendiente") LocalDate fechaPendiente,
+                         @Param("fechaReparacion") LocalDate fechaReparacion,
+                         @Param("fechaListo") LocalDate fechaListo);
+
+    /**
+     * 👤 Solo el email normalizado del dueño (para invalidar su caché sin cargar el ticket).
+     */
+    @Query("SELECT t.clienteEmailNormalizado FROM TicketModel t WHERE t.id = :id")
+    Optional<String> findClienteEmailNormalizadoById(@Param("id") Long id);
 }
 
 
@@ -0,0 +1,39 @@
+package com.example.java.proyect;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.example.java.proyect.entities.TicketTransicionEntity;
+import com.example.java.proyect.share.dto.TransicionDuracion;
+
+import jakarta.persistence.QueryHint;
+
+/**
+ * Acceso al historial de cambios de estado (tabla ticket_transicion, solo inserción).
+ */
+@Repository
+public interface TicketTransicionRepository extends JpaRepository<TicketTransicionEntity, Long> {
+
+    /**
+     * Historial de un ticket, del cambio más viejo al más nuevo (usa idx_ticket_transicion_ticket).
+     */
+    List<TicketTransicionEntity> findByTicketIdOrderByInstanteAsc(Long ticketId);
+
+    /**
+     * Cambios con duración conocida desde un instante, leídos en streaming (requiere transacción).
+     * TicketSlaStats lo usa al arrancar (últimos meses) y después solo para las filas nuevas
+     * (desde la lectura anterior, usa idx_ticket_transicion_instante).
+     */
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "500"))
+    @Query("SELECT t.id AS id, t.instante AS instante, t.prioridad AS prioridad, t.desde AS desde, "
+            + "t.segundosEnEstado AS segundosEnEstado FROM TicketTransicionEntity t "
+            + "WHERE t.instante >= :desde AND t.segundosEnEstado IS NOT NULL")
+    Stream<TransicionDuracion> streamDuracionesDesde(@Param("desde") Instant desde);
+}
@@ -1,13 +1,24 @@
 package com.example.java.proyect;
 
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.stereotype.Repository;
 
 import com.example.java.proyect.entities.UserEntity;
+import com.example.java.proyect.share.dto.UsuarioResumen;
+
+import jakarta.persistence.QueryHint;
 
 @Repository
 public interface  UserRepository extends CrudRepository<UserEntity,Long> {
+    // Login y registro: el resultado queda en la caché de consultas de Hibernate
+    // (se invalida sola cuando cambia la tabla users, también desde otra réplica)
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"))
     UserEntity findByEmail(String email);
+
+    // Mismo filtro pero trae solo los datos públicos (sin el hash de la contraseña)
+    UsuarioResumen findResumenByEmail(String email);
     
 }
 /*CrudRepository:
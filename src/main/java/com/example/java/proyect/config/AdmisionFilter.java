@@ -0,0 +1,115 @@
+package com.example.java.proyect.config;
+
+import java.io.IOException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * 🚦 Control de admisión: limita cuántas peticiones trabajan a la vez.
+ *
+ * Con hilos virtuales Tomcat ya no corta en 200 hilos: acepta miles de peticiones simultáneas
+ * y todas terminan esperando una conexión de Hikari (pool chico). Este filtro deja pasar tantas
+ * peticiones como conexiones tiene el pool; el resto espera acá, en una cola justa (FIFO),
+ * y si no consigue lugar a tiempo se responde 503 con Retry-After en vez de colgarse.
+ *
+ * Los permisos son algunas conexiones menos que el pool (web.admision.conexiones-libres):
+ * una petición puede necesitar una segunda conexión a la vez (Hibernate pide los bloques de
+ * IDs de id_generadores en una transacción aparte) y los @Scheduled también usan el pool.
+ * Con tantos permisos como conexiones, N altas simultáneas ocupan todo el pool y la que
+ * tiene que pedir el bloque nuevo espera una conexión que no se libera (timeout de Hikari).
+ *
+ * Corre después de Spring Security (orden por defecto de los filtros @Component), así las
+ * peticiones sin token se rechazan sin ocupar lugar. Actuator y preflight CORS no pasan por acá.
+ *
+ * ⚠️ En los endpoints asincrónicos (GET /tickets/stream) el permiso se libera al salir del hilo
+ * de la petición, aunque la exportación siga corriendo en otro hilo.
+ */
+@Component
+public class AdmisionFilter extends OncePerRequestFilter {
+
+    private final Semaphore permisos;
+    private final int maxConcurrentes;
+    private final long esperaMs;
+    private final Counter rechazos;
+
+    @Autowired
+    public AdmisionFilter(@Value("${web.admision.permisos:0}") int permisosFijos,
+                          @Value("${spring.datasource.hikari.maximum-pool-size:10}") int conexiones,
+                          @Value("${web.admision.conexiones-libres:3}") int conexionesLibres,
+                          @Value("${web.admision.espera-ms:2000}") long esperaMs,
+                          MeterRegistry meterRegistry) {
+        this(permisosFijos > 0 ? permisosFijos : permisosPorDefecto(conexiones, conexionesLibres), esperaMs, meterRegistry);
+    }
+
+    public AdmisionFilter(int maxConcurrentes, long esperaMs, MeterRegistry meterRegistry) {
+        this.permisos = new Semaphore(maxConcurrentes, true);
+        this.maxConcurrentes = maxConcurrentes;
+        this.esperaMs = esperaMs;
+        this.rechazos = meterRegistry.counter("web.admision.rechazos");
+        Gauge.builder("web.admision.en_curso", permisos, p -> maxConcurrentes - p.availablePermits())
+                .description("Peticiones trabajando (como máximo, el pool de conexiones menos las libres)")
+                .register(meterRegistry);
+        Gauge.builder("web.admision.en_espera", permisos, Semaphore::getQueueLength)
+                .description("Peticiones esperando lugar")
+                .register(meterRegistry);
+    }
+
+    int maxConcurrentes() {
+        return maxConcurrentes;
+    }
+
+    // Pool menos las conexiones libres, y al menos una petición
+    static int permisosPorDefecto(int conexiones, int conexionesLibres) {
+        return Math.max(conexiones - conexionesLibres, 1);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        return "OPTIONS".equals(request.getMethod()) || request.getServletPath().startsWith("/actuator");
+    }
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request,
+                                    @NonNull HttpServletResponse response,
+                                    @NonNull FilterChain filterChain)
+                                    throws ServletException, IOException {
+        boolean admitida;
+        try {
+            admitida = permisos.tryAcquire(esperaMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            admitida = false;
+        }
+
+        if (!admitida) {
+            // 🛑 Saturado: mejor avisar rápido que dejar al cliente colgado
+            rechazos.increment();
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader("Retry-After", "1");
+            response.setContentType("text/plain;charset=UTF-8");
+            response.getWriter().write("Servidor ocupado, reintentá en unos segundos");
+            return;
+        }
+
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            permisos.release();
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.java.proyect.config;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/**
+ * ⚡ Cachés en memoria (Caffeine), cada una con su tamaño máximo y tiempo de vida.
+ *
+ * - Se registran al arrancar, así Actuator publica sus métricas (cache.gets hit/miss,
+ *   cache.evictions, cache.size) en /actuator/prometheus.
+ * - Transaccionales: un evict hecho dentro de una transacción se aplica recién después
+ *   del commit, para que nadie vuelva a cachear los datos viejos mientras tanto.
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    // 🗂️ Lista de tickets de cada cliente (clave: email normalizado)
+    public static final String TICKETS_POR_CLIENTE = "ticketsPorCliente";
+
+    // 👤 Datos públicos de cada usuario, sin contraseña (clave: email)
+    public static final String USUARIOS_POR_EMAIL = "usuariosPorEmail";
+
+    @Bean
+    public CacheManager cacheManager(@Value("${cache.tickets-por-cliente.max:10000}") long ticketsPorClienteMax,
+                                     @Value("${cache.tickets-por-cliente.ttl:5m}") Duration ticketsPorClienteTtl,
+                                     @Value("${cache.usuarios-por-email.max:10000}") long usuariosPorEmailMax,
+                                     @Value("${cache.usuarios-por-email.ttl:30m}") Duration usuariosPorEmailTtl) {
+        CaffeineCacheManager manager = new CaffeineCacheManager();
+        manager.setAllowNullValues(false);
+        manager.registerCustomCache(TICKETS_POR_CLIENTE, Caffeine.newBuilder()
+                .maximumSize(ticketsPorClienteMax)
+                .expireAfterWrite(ticketsPorClienteTtl)
+                .recordStats()
+                .build());
+        manager.registerCustomCache(USUARIOS_POR_EMAIL, Caffeine.newBuilder()
+                .maximumSize(usuariosPorEmailMax)
+                .expireAfterWrite(usuariosPorEmailTtl)
+                .recordStats()
+                .build());
+        return new TransactionAwareCacheManagerProxy(manager);
+    }
+}
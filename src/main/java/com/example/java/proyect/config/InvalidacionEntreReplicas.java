@@ -0,0 +1,357 @@
+package com.example.java.proyect.config;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostCommitDeleteEventListener;
+import org.hibernate.event.spi.PostCommitInsertEventListener;
+import org.hibernate.event.spi.PostCommitUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.persister.entity.EntityPersister;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.core.Ordered;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.example.java.proyect.entities.UserEntity;
+import com.example.java.proyect.models.requests.TicketModel;
+import com.example.java.proyect.service.TicketCambios;
+import com.example.java.proyect.service.TicketEventBus;
+import com.example.java.proyect.service.TicketEvento;
+import com.example.java.proyect.service.TicketSearchIndex;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * 🗄️ Mantiene coherentes las cachés en memoria cuando hay varias réplicas de la app (EasyPanel).
+ *
+ * Cada réplica tiene su propia caché de segundo nivel de Hibernate (tickets, usuarios, consultas)
+ * y sus cachés de Spring (ticketsPorCliente, usuariosPorEmail). Un cambio hecho en una réplica
+ * solo se refleja en las suyas, así que:
+ *
+ * - Después de cada commit que toca un ticket o un usuario, se anota qué cambió (eventos
+ *   post-commit de Hibernate; los UPDATE masivos llegan como TicketEvento sin ticket).
+ * - Cada "intervalo" se escriben las anotaciones en la tabla cache_invalidacion (un INSERT en lote).
+ * - Cada "intervalo" se leen las filas recientes de las otras réplicas y se sacan esas
+ *   entradas de las cachés locales. Una fila se aplica una sola vez.
+ *
+ * Un cambio de ticket de otra réplica además se reenvía al índice de búsqueda (TicketSearchIndex)
+ * y a los paneles SSE de esta (TicketEventBus). Los tiempos por estado (TicketSlaStats) no se
+ * enteran acá: leen cada tanto las filas nuevas de ticket_transicion.
+ *
+ * Cada ronda también le pasa a TicketCambios la última fila de tickets "asentada" (más vieja que
+ * "asentado-s", ya no puede aparecer otra anterior): dos réplicas al día dan el mismo ETag.
+ *
+ * Demora entre réplicas: hasta dos intervalos. Las regiones vencen igual a los 10 minutos
+ * (application.conf), por si se perdiera alguna anotación.
+ */
+@Component
+public class InvalidacionEntreReplicas
+        implements PostCommitInsertEventListener, PostCommitUpdateEventListener, PostCommitDeleteEventListener {
+
+    private static final Logger log = LoggerFactory.getLogger(InvalidacionEntreReplicas.class);
+
+    static final String TICKET = "ticket";
+    static final String USUARIO = "usuario";
+
+    // Más cambios que esto de una entidad en una ronda (ej. importación): se invalida la región entera
+    private static final int MAX_POR_RONDA = 1000;
+
+    /**
+     * Un cambio a propagar.
+     * @param id null = toda la región
+     * @param clave email en las cachés de Spring (null = no se sabe: con id null se vacía la caché)
+     */
+    record Invalidacion(String entidad, Long id, String clave) { }
+
+    private final String origen = UUID.randomUUID().toString(); // Identifica a esta réplica
+    private final JdbcTemplate jdbc;
+    private final SessionFactory sessionFactory;
+    private final Cache ticketsPorCliente;
+    private final Cache usuariosPorEmail;
+    private final TicketCambios ticketCambios;
+    private final TicketSearchIndex ticketSearchIndex;
+    private final TicketEventBus ticketEventBus;
+    private final Set<Invalidacion> pendientes = ConcurrentHashMap.newKeySet();
+    private final Counter publicadas;
+    private final Counter aplicadas;
+
+    // IDs de las filas de otras réplicas ya aplicadas (solo las que siguen dentro de la ventana)
+    private Set<Long> filasAplicadas = Set.of();
+
+    // Fila de tickets asentada más nueva (de cualquier réplica): base del ETag compartido
+    private volatile long ultimaFilaTickets;
+
+    // Segundos hacia atrás que se leen en cada ronda (tiene que cubrir más de un intervalo)
+    @Value("${cache.invalidacion.ventana-s:10}")
+    private int ventanaSegundos;
+
+    // Antigüedad a partir de la cual una fila ya está confirmada (menor que la ventana)
+    @Value("${cache.invalidacion.asentado-s:3}")
+    private int asentadoSegundos;
+
+    public InvalidacionEntreReplicas(JdbcTemplate jdbc, EntityManagerFactory entityManagerFactory,
+                                     CacheManager cacheManager, TicketCambios ticketCambios,
+                                     TicketSearchIndex ticketSearchIndex, TicketEventBus ticketEventBus,
+                                     MeterRegistry meterRegistry) {
+        this.jdbc = jdbc;
+        this.sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+        this.ticketsPorCliente = cacheManager.getCache(CacheConfig.TICKETS_POR_CLIENTE);
+        this.usuariosPorEmail = cacheManager.getCache(CacheConfig.USUARIOS_POR_EMAIL);
+        this.ticketCambios = ticketCambios;
+        this.ticketSearchIndex = ticketSearchIndex;
+        this.ticketEventBus = ticketEventBus;
+        this.publicadas = Counter.builder("cache.invalidaciones")
+                .description("Cambios avisados a (o recibidos de) otras réplicas")
+                .tag("sentido", "publicadas")
+                .register(meterRegistry);
+        this.aplicadas = Counter.builder("cache.invalidaciones")
+                .description("Cambios avisados a (o recibidos de) otras réplicas")
+                .tag("sentido", "aplicadas")
+                .register(meterRegistry);
+    }
+
+    // 🔌 Se registra en Hibernate para enterarse de cada INSERT/UPDATE/DELETE confirmado
+    @PostConstruct
+    void registrarEnHibernate() {
+        EventListenerRegistry registro = sessionFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry().getService(EventListenerRegistry.class);
+        registro.appendListeners(EventType.POST_COMMIT_INSERT, this);
+        registro.appendListeners(EventType.POST_COMMIT_UPDATE, this);
+        registro.appendListeners(EventType.POST_COMMIT_DELETE, this);
+    }
+
+    // 🚀 El ETag compartido arranca desde la última fila de tickets que haya en la tabla
+    @EventListener(ApplicationReadyEvent.class)
+    public void leerUltimaFila() {
+        Long ultima = jdbc.queryForObject("SELECT MAX(id) FROM cache_invalidacion WHERE entidad = ?", Long.class, TICKET);
+        if (ultima != null && ultima > ultimaFilaTickets) {
+            ultimaFilaTickets = ultima;
+        }
+    }
+
+    // ------------------- Anotar cambios locales -------------------
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        anotar(event.getEntity());
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        anotar(event.getEntity());
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        anotar(event.getEntity());
+    }
+
+    // Si la transacción falla no hay nada que avisar
+    @Override
+    public void onPostInsertCommitFailed(PostInsertEvent event) {
+    }
+
+    @Override
+    public void onPostUpdateCommitFailed(PostUpdateEvent event) {
+    }
+
+    @Override
+    public void onPostDeleteCommitFailed(PostDeleteEvent event) {
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        Class<?> clase = persister.getMappedClass();
+        return clase == TicketModel.class || clase == UserEntity.class;
+    }
+
+    /**
+     * 📣 Cambios hechos con UPDATE directos (PATCH, estado masivo): Hibernate no genera
+     * eventos por entidad, pero TicketService avisa igual con un TicketEvento sin ticket.
+     * Primero que los demás oyentes: el ticket sale de la caché de segundo nivel local (ya
+     * confirmado, nadie vuelve a cargar la versión vieja) antes de que el índice lo relea.
+     */
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void cambioSinEntidad(TicketEvento evento) {
+        if (evento.ticket() == null && evento.id() != null) {
+            sessionFactory.getCache().evictEntityData(TicketModel.class, evento.id());
+            pendientes.add(new Invalidacion(TICKET, evento.id(), evento.clienteEmailNormalizado()));
+        }
+    }
+
+    private void anotar(Object entidad) {
+        if (entidad instanceof TicketModel ticket) {
+            pendientes.add(new Invalidacion(TICKET, ticket.getId(), ticket.getClienteEmailNormalizado()));
+            ticketCambios.registrarCambio(); // También cubre cambios guardados sin pasar por TicketService
+        } else if (entidad instanceof UserEntity usuario) {
+            pendientes.add(new Invalidacion(USUARIO, usuario.getId(), TicketModel.normalizarEmail(usuario.getEmail())));
+        }
+    }
+
+    // ------------------- Publicar y aplicar -------------------
+
+    /**
+     * 📤 Escribe lo anotado en cache_invalidacion (con la hora de la base).
+     */
+    @Scheduled(fixedDelayString = "${cache.invalidacion.intervalo-ms:1000}",
+               initialDelayString = "${cache.invalidacion.intervalo-ms:1000}")
+    public void publicar() {
+        if (pendientes.isEmpty()) {
+            return;
+        }
+        List<Invalidacion> tomadas = new ArrayList<>(pendientes);
+        tomadas.forEach(pendientes::remove);
+        List<Invalidacion> lote = compactar(tomadas);
+
+        try {
+            jdbc.batchUpdate("INSERT INTO cache_invalidacion (origen, entidad, entidad_id, clave, creado_en) "
+                    + "VALUES (?, ?, ?, ?, CURRENT_TIMESTAMP(6))", lote, lote.size(), (ps, inv) -> {
+                        ps.setString(1, origen);
+                        ps.setString(2, inv.entidad());
+                        ps.setObject(3, inv.id());
+                        ps.setString(4, inv.clave());
+                    });
+            publicadas.increment(lote.size());
+        } catch (DataAccessException e) {
+            // Se reintenta en la próxima ronda
+            pendientes.addAll(lote);
+            log.warn("⚠️ No se pudieron publicar invalidaciones de caché: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 📥 Aplica las invalidaciones recientes de las otras réplicas (cada fila una sola vez).
+     * Si la ronda no trae nada nuevo, confirma el ETag compartido de los listados.
+     */
+    @Scheduled(fixedDelayString = "${cache.invalidacion.intervalo-ms:1000}",
+               initialDelayString = "${cache.invalidacion.intervalo-ms:1000}")
+    public void aplicarRemotas() {
+        long versionAlEmpezar = ticketCambios.version();
+        boolean ticketsSinPublicar = pendientes.stream().anyMatch(inv -> TICKET.equals(inv.entidad()));
+        Set<Long> vistas = new HashSet<>();
+        long[] ultimaAsentada = { ultimaFilaTickets };
+        boolean[] ticketsSinAsentar = { false };
+
+        // Se leen también las filas propias: cuentan para el ETag compartido (no se aplican)
+        jdbc.query("SELECT id, origen, entidad, entidad_id, clave, "
+                + "CASE WHEN creado_en <= TIMESTAMPADD(SECOND, ?, CURRENT_TIMESTAMP(6)) THEN 1 ELSE 0 END AS asentada "
+                + "FROM cache_invalidacion WHERE creado_en >= TIMESTAMPADD(SECOND, ?, CURRENT_TIMESTAMP(6))",
+                fila -> {
+                    long id = fila.getLong("id");
+                    String entidad = fila.getString("entidad");
+                    if (!origen.equals(fila.getString("origen"))) {
+                        vistas.add(id);
+                        if (!filasAplicadas.contains(id)) {
+                            aplicar(new Invalidacion(entidad, fila.getObject("entidad_id", Long.class), fila.getString("clave")));
+                            aplicadas.increment();
+                        }
+                    }
+                    if (TICKET.equals(entidad)) {
+                        if (fila.getInt("asentada") == 1) {
+                            ultimaAsentada[0] = Math.max(ultimaAsentada[0], id);
+                        } else {
+                            ticketsSinAsentar[0] = true;
+                        }
+                    }
+                }, -asentadoSegundos, -ventanaSegundos);
+        filasAplicadas = vistas;
+        ultimaFilaTickets = ultimaAsentada[0];
+
+        // Todo lo que esta réplica sabe de los tickets está en filas asentadas: ETag compartido
+        if (!ticketsSinPublicar && !ticketsSinAsentar[0]) {
+            ticketCambios.confirmar(ultimaFilaTickets, versionAlEmpezar);
+        }
+    }
+
+    // 🧹 Las filas ya no sirven pasada la ventana: se guarda una hora por las dudas. La última de
+    // tickets queda siempre: si no, una réplica que arranque con la tabla vacía volvería a ETag viejos
+    @Scheduled(fixedDelayString = "${cache.invalidacion.limpieza-ms:600000}",
+               initialDelayString = "${cache.invalidacion.limpieza-ms:600000}")
+    public void limpiar() {
+        Long ultima = jdbc.queryForObject("SELECT MAX(id) FROM cache_invalidacion WHERE entidad = ?", Long.class, TICKET);
+        jdbc.update("DELETE FROM cache_invalidacion WHERE creado_en < TIMESTAMPADD(HOUR, -1, CURRENT_TIMESTAMP(6)) AND id <> ?",
+                ultima == null ? -1L : ultima);
+    }
+
+    void aplicar(Invalidacion invalidacion) {
+        org.hibernate.Cache segundoNivel = sessionFactory.getCache();
+        boolean esTicket = TICKET.equals(invalidacion.entidad());
+        Class<?> clase = esTicket ? TicketModel.class : UserEntity.class;
+        Cache deSpring = esTicket ? ticketsPorCliente : usuariosPorEmail;
+
+        if (invalidacion.id() != null) {
+            segundoNivel.evictEntityData(clase, invalidacion.id());
+        } else {
+            segundoNivel.evictEntityData(clase);
+        }
+        if (invalidacion.clave() != null) {
+            deSpring.evict(invalidacion.clave());
+        } else if (invalidacion.id() == null) {
+            deSpring.clear();
+        }
+        if (esTicket) {
+            ticketCambios.registrarCambio(); // Los ETag de los listados dejan de coincidir
+            avisarCambioRemoto(invalidacion);
+        } else {
+            // Los resultados cacheados de findByEmail se validan contra cambios locales de la tabla users
+            segundoNivel.evictQueryRegions();
+        }
+    }
+
+    /**
+     * 📣 Lo que cada réplica arma en memoria con los TicketEvento también se entera del cambio:
+     * el índice de búsqueda relee el ticket y los paneles conectados por SSE reciben un
+     * "actualizado" sin datos (lo piden por id; si se borró, les da 404). Sin id: "importados".
+     */
+    private void avisarCambioRemoto(Invalidacion invalidacion) {
+        ticketSearchIndex.releer(invalidacion.id());
+        ticketEventBus.publicar(invalidacion.id() != null
+                ? new TicketEvento(TicketEvento.ACTUALIZADO, invalidacion.id(), null, invalidacion.clave())
+                : new TicketEvento(TicketEvento.IMPORTADOS, null, null, null));
+    }
+
+    // Demasiados cambios de una entidad en una ronda: una sola fila que invalida la región entera
+    private static List<Invalidacion> compactar(List<Invalidacion> lote) {
+        Map<String, List<Invalidacion>> porEntidad = lote.stream().collect(Collectors.groupingBy(Invalidacion::entidad));
+        List<Invalidacion> resultado = new ArrayList<>();
+        porEntidad.forEach((entidad, cambios) -> {
+            if (cambios.size() > MAX_POR_RONDA) {
+                resultado.add(new Invalidacion(entidad, null, null));
+            } else {
+                resultado.addAll(cambios);
+            }
+        });
+        return resultado;
+    }
+
+    String origen() {
+        return origen;
+    }
+}
@@ -2,27 +2,56 @@ package com.example.java.proyect.config;
 
 import java.io.IOException;
 import java.util.Collections;
+import java.util.concurrent.ThreadLocalRandom;
 
+import org.slf4j.MDC;
 import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.filter.OncePerRequestFilter;
 
-import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 
+/**
+ * 🔐 Valida el JWT de cada petición y carga la autenticación en el contexto de Spring Security.
+ *
+ * 🧾 También le pone un id a la petición (el X-Request-Id del proxy, o uno nuevo) y lo deja en el
+ * MDC junto con el usuario: todo lo que se loguee mientras se atiende lleva esos dos campos.
+ * El id vuelve en la respuesta para poder buscarlo en los logs.
+ */
 public class JWTAuthorizationFilter extends OncePerRequestFilter {
 
+    public static final String HEADER_ID_PETICION = "X-Request-Id";
+    public static final String MDC_ID_PETICION = "idPeticion";
+    public static final String MDC_USUARIO = "usuario";
+
+    // Ids recibidos más largos que esto se ignoran (se genera uno nuevo)
+    private static final int MAX_ID = 64;
+
     @Override
     protected void doFilterInternal(@NonNull HttpServletRequest request,
                                     @NonNull HttpServletResponse response,
                                     @NonNull FilterChain filterChain)
                                     throws ServletException, IOException {
 
+        String idPeticion = idPeticion(request);
+        MDC.put(MDC_ID_PETICION, idPeticion);
+        response.setHeader(HEADER_ID_PETICION, idPeticion);
+        try {
+            autenticar(request, response, filterChain);
+        } finally {
+            MDC.remove(MDC_ID_PETICION);
+            MDC.remove(MDC_USUARIO);
+        }
+    }
+
+    private void autenticar(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+
         String path = request.getServletPath();
 
         // Excluir rutas públicas del filtro JWT
@@ -44,10 +73,11 @@ public class JWTAuthorizationFilter extends OncePerRequestFilter {
 
         String token = header.replace(SecurityConstants.TOKEN_PREFIX + " ", "");
 
-        if (JWTUtil.isTokenValid(token)) {
-            Claims claims = JWTUtil.getClaims(token);
-            String email = claims.getSubject();
-            String role = claims.get("role", String.class);
+        // Una sola verificación por request (y ninguna si el token ya está en el caché)
+        JWTUtil.TokenValidado datos = JWTUtil.validar(token);
+        if (datos != null) {
+            String email = datos.email();
+            String role = datos.role();
 
             UsernamePasswordAuthenticationToken authentication =
                     new UsernamePasswordAuthenticationToken(
@@ -57,8 +87,29 @@ public class JWTAuthorizationFilter extends OncePerRequestFilter {
                     );
 
             SecurityContextHolder.getContext().setAuthentication(authentication);
+            MDC.put(MDC_USUARIO, email);
         }
 
         filterChain.doFilter(request, response);
     }
+
+    // El id que manda el proxy (si es seguro para los logs), o uno nuevo en hexadecimal
+    private static String idPeticion(HttpServletRequest request) {
+        String recibido = request.getHeader(HEADER_ID_PETICION);
+        if (recibido != null && !recibido.isEmpty() && recibido.length() <= MAX_ID && esIdValido(recibido)) {
+            return recibido;
+        }
+        return Long.toHexString(ThreadLocalRandom.current().nextLong());
+    }
+
+    // Solo letras, números, '-', '_' y '.': nada de saltos de línea que falsifiquen entradas del log
+    private static boolean esIdValido(String id) {
+        for (int i = 0; i < id.length(); i++) {
+            char c = id.charAt(i);
+            if (!(Character.isLetterOrDigit(c) || c == '-' || c == '_' || c == '.')) {
+                return false;
+            }
+        }
+        return true;
+    }
 }
@@ -2,25 +2,68 @@ package com.example.java.proyect.config;
 
 import java.security.Key;
 import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.MalformedJwtException;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SignatureException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
 
 /**
  * 🔐 Clase utilitaria para crear y validar JWTs.
  * Usa la versión 0.11.5 de jjwt (compatible con Java 17+).
+ *
+ * La clave y el parser se crean una sola vez. Los tokens ya verificados se guardan en
+ * un caché acotado (token → email/rol/vencimiento): mientras no venzan, validar un token
+ * repetido es una sola búsqueda en un mapa, sin volver a verificar la firma HS512.
+ * Cada entrada vence junto con su token y, si se llena, Caffeine descarta de a una las
+ * menos usadas (nunca vacía todo el caché de golpe).
  */
 public class JWTUtil {
 
-    // 🔐 Devuelve la clave secreta decodificada desde BASE64
-    private static Key getSigningKey() {
-        // 1️⃣ Decodificamos la clave secreta en BASE64
-        byte[] keyBytes = Decoders.BASE64.decode(SecurityConstants.TOKEN_SECRET);
-        // 2️⃣ Creamos la clave HMAC segura
-        return Keys.hmacShaKeyFor(keyBytes);
+    // 🔐 Clave secreta decodificada desde BASE64 (se calcula una sola vez)
+    private static final Key SIGNING_KEY = Keys.hmacShaKeyFor(Decoders.BASE64.decode(SecurityConstants.TOKEN_SECRET));
+
+    // 🧰 Parser reutilizable (es inmutable y seguro para usar desde varios hilos)
+    private static final JwtParser PARSER = Jwts.parserBuilder().setSigningKey(SIGNING_KEY).build();
+
+    // 🗃️ Máxima cantidad de tokens verificados que se guardan en memoria
+    private static final int MAX_TOKENS_CACHE = 10_000;
+
+    // 🗃️ Tokens válidos ya verificados (solo se guardan tokens con firma correcta), cada uno hasta su "exp"
+    private static final Cache<String, TokenValidado> CACHE = Caffeine.newBuilder()
+            .maximumSize(MAX_TOKENS_CACHE)
+            .expireAfter(new HastaElVencimiento())
+            .build();
+
+    // 📈 Métricas (registro global de Micrometer, Spring Boot le agrega el de Prometheus)
+    private static final Timer TIEMPO_VERIFICACION = Metrics.timer("jwt.verificacion");
+    private static final Counter CACHE_HIT = Metrics.counter("jwt.cache", "resultado", "hit");
+    private static final Counter CACHE_MISS = Metrics.counter("jwt.cache", "resultado", "miss");
+
+    /**
+     * ✅ Datos de un token ya verificado.
+     * @param email subject del token
+     * @param role rol guardado en el claim "role"
+     * @param expiraEn vencimiento en milisegundos (epoch)
+     */
+    public record TokenValidado(String email, String role, long expiraEn) {
+
+        public boolean vencido() {
+            return System.currentTimeMillis() >= expiraEn;
+        }
     }
 
     /**
@@ -32,7 +75,7 @@ public class JWTUtil {
                 .claim("role", role) // 🎭 Agregamos el rol como claim adicional
                 .setIssuedAt(new Date()) // 📅 Fecha de creación
                 .setExpiration(new Date(System.currentTimeMillis() + SecurityConstants.EXPIRATION_DATE)) // 📅 Expiración
-                .signWith(getSigningKey(), SignatureAlgorithm.HS512) // 🖊️ Firmamos con HS512
+                .signWith(SIGNING_KEY, SignatureAlgorithm.HS512) // 🖊️ Firmamos con HS512
                 .compact(); // 🎫 Generamos el token (String)
     }
 
@@ -40,9 +83,7 @@ public class JWTUtil {
      * 📄 Parsea el token y devuelve sus claims (payload).
      */
     public static Claims getClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
+        return PARSER
                 .parseClaimsJws(token.replace(SecurityConstants.TOKEN_PREFIX + " ", "")) // Quitamos "Bearer "
                 .getBody();
     }
@@ -65,11 +106,76 @@ public class JWTUtil {
      * ✅ Verifica que el token sea válido (firma y vencimiento).
      */
     public static boolean isTokenValid(String token) {
+        return validar(token) != null;
+    }
+
+    /**
+     * 🔎 Verifica el token y devuelve su email y rol, o null si es inválido o está vencido.
+     * Si el token ya se verificó antes y sigue vigente, sale directo del caché.
+     */
+    public static TokenValidado validar(String token) {
+        TokenValidado cacheado = CACHE.getIfPresent(token); // Caffeine no devuelve entradas vencidas
+        if (cacheado != null) {
+            CACHE_HIT.increment();
+            return cacheado;
+        }
+        CACHE_MISS.increment();
+
+        TokenValidado validado;
+        long inicio = System.nanoTime();
         try {
             Claims claims = getClaims(token);
-            return claims.getExpiration().after(new Date());
+            if (claims.getExpiration() == null) {
+                rechazo("sin_vencimiento"); // Todos nuestros tokens tienen vencimiento
+                return null;
+            }
+            validado = new TokenValidado(claims.getSubject(), claims.get("role", String.class),
+                    claims.getExpiration().getTime());
+        } catch (ExpiredJwtException e) {
+            rechazo("vencido");
+            return null;
+        } catch (SignatureException e) {
+            rechazo("firma");
+            return null;
+        } catch (MalformedJwtException e) {
+            rechazo("formato");
+            return null;
         } catch (Exception e) {
-            return false; // Token inválido
+            rechazo("otro"); // Token inválido por otro motivo
+            return null;
+        } finally {
+            TIEMPO_VERIFICACION.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+        }
+
+        if (validado.vencido()) {
+            rechazo("vencido");
+            return null;
+        }
+        CACHE.put(token, validado);
+        return validado;
+    }
+
+    // ⏳ Cada token sale del caché en su "exp" (volver a leerlo no le extiende la vida)
+    private static final class HastaElVencimiento implements Expiry<String, TokenValidado> {
+
+        @Override
+        public long expireAfterCreate(String token, TokenValidado validado, long ahoraNanos) {
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(validado.expiraEn() - System.currentTimeMillis(), 0));
+        }
+
+        @Override
+        public long expireAfterUpdate(String token, TokenValidado validado, long ahoraNanos, long restanteNanos) {
+            return expireAfterCreate(token, validado, ahoraNanos);
         }
+
+        @Override
+        public long expireAfterRead(String token, TokenValidado validado, long ahoraNanos, long restanteNanos) {
+            return restanteNanos;
+        }
+    }
+
+    // 📈 Cuenta un token rechazado según el motivo
+    private static void rechazo(String motivo) {
+        Metrics.counter("jwt.rechazos", "motivo", motivo).increment();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,26 @@
+package com.example.java.proyect.config;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.filter.Filter;
+import ch.qos.logback.core.spi.FilterReply;
+
+/**
+ * 🎲 Filtro de Logback que deja pasar 1 de cada "cada" mensajes (1 = todos).
+ * Se usa con las consultas lentas: si la base se pone lenta, no se inunda el log.
+ */
+public class MuestreoLogFilter extends Filter<ILoggingEvent> {
+
+    private final AtomicLong contador = new AtomicLong();
+    private int cada = 1;
+
+    @Override
+    public FilterReply decide(ILoggingEvent event) {
+        return contador.getAndIncrement() % cada == 0 ? FilterReply.NEUTRAL : FilterReply.DENY;
+    }
+
+    public void setCada(int cada) {
+        this.cada = Math.max(cada, 1);
+    }
+}
@@ -1,21 +1,31 @@
 package com.example.java.proyect.config;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
 import org.springframework.http.HttpMethod;
+import org.springframework.security.authentication.ProviderManager;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.crypto.factory.PasswordEncoderFactories;
+import org.springframework.security.provisioning.InMemoryUserDetailsManager;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
+import jakarta.servlet.DispatcherType;
+
 /**
  * 🔐 Configuración de seguridad para Spring Boot usando JWT.
  * - Permite login y registro sin autenticación.
  * - Desactiva CSRF (porque usamos JWT).
  * - Activa CORS usando CorsConfig.
  * - Aplica filtro JWT para proteger rutas privadas.
+ * - /actuator/prometheus va aparte, con usuario y clave (HTTP Basic) para el scraper.
  */
 @Configuration
 @EnableWebSecurity
@@ -28,7 +38,39 @@ public class SecurityConfig {
         return new JWTAuthorizationFilter();
     }
 
+    /**
+     * 📈 Métricas: Prometheus no maneja JWT (vencen), pero sí basic_auth. Usuario y clave
+     * salen de metricas.usuario / metricas.clave; sin clave configurada nadie puede leerlas.
+     * Va antes que la cadena principal y no usa el filtro JWT ni los usuarios de la app.
+     */
+    @Bean
+    @Order(1)
+    public SecurityFilterChain metricasFilterChain(org.springframework.security.config.annotation.web.builders.HttpSecurity http,
+                                                   @Value("${metricas.usuario:prometheus}") String usuario,
+                                                   @Value("${metricas.clave:}") String clave) throws Exception {
+        DaoAuthenticationProvider proveedor = new DaoAuthenticationProvider(
+                PasswordEncoderFactories.createDelegatingPasswordEncoder());
+        proveedor.setUserDetailsService(new InMemoryUserDetailsManager(
+                User.withUsername(usuario).password("{noop}" + clave).roles("METRICAS").build()));
+
+        return http
+            .securityMatcher("/actuator/prometheus")
+            .csrf(csrf -> csrf.disable())
+            .authorizeHttpRequests(auth -> {
+                if (clave.isBlank()) {
+                    auth.anyRequest().denyAll();
+                } else {
+                    auth.anyRequest().hasRole("METRICAS");
+                }
+            })
+            .httpBasic(Customizer.withDefaults())
+            .authenticationManager(new ProviderManager(proveedor))
+            .sessionManagement(sm -> sm.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+            .build();
+    }
+
     @Bean
+    @Order(2)
     public SecurityFilterChain securityFilterChain(org.springframework.security.config.annotation.web.builders.HttpSecurity http) throws Exception {
 
         return http
@@ -41,11 +83,15 @@ public class SecurityConfig {
                 // ⚙️ Permitir preflight requests (CORS)
                 .requestMatchers(HttpMethod.OPTIONS, "/**").permitAll()
 
+                // 🌊 Respuestas en streaming: la petición original ya pasó por la autorización
+                .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
+
                 // 🔓 Rutas públicas: login y registro
                 .requestMatchers(
                     "/users",            // Registro
                     "/users/login",      // Login
                     "/test-email",       // Otros endpoints públicos (si los usás)
+                    "/actuator/health",  // Estado de la app (healthcheck de EasyPanel)
                     "/auth/**", "/api/auth/**" // Opcional si tenés otras rutas de auth
                 ).permitAll()
 
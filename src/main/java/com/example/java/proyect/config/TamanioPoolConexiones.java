@@ -0,0 +1,45 @@
+package com.example.java.proyect.config;
+
+import java.util.Map;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.env.EnvironmentPostProcessor;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.core.env.MapPropertySource;
+
+/**
+ * 🔌 Calcula un tamaño sugerido para el pool de Hikari y lo deja en "db.pool.sugerido"
+ * (el perfil prod lo usa si no se fija DB_POOL).
+ *
+ * - Por CPU: núcleos × 2 + 1 (fórmula de HikariCP). Más conexiones no hacen más rápido
+ *   a MySQL: solo agregan espera dentro de la base.
+ * - Por la base: las conexiones que acepta MySQL (max_connections) menos las reservadas
+ *   para otros clientes, repartidas entre las réplicas de la app.
+ *
+ * Se usa el menor de los dos. Corre antes de crear los beans, así el valor también sirve
+ * para los permisos de AdmisionFilter (pool menos web.admision.conexiones-libres).
+ */
+public class TamanioPoolConexiones implements EnvironmentPostProcessor {
+
+    static final String PROPIEDAD = "db.pool.sugerido";
+
+    private static final int MINIMO = 2;
+
+    @Override
+    public void postProcessEnvironment(ConfigurableEnvironment environment, SpringApplication application) {
+        int maxConexiones = environment.getProperty("db.max-conexiones", Integer.class, 151);
+        int reservadas = environment.getProperty("db.conexiones-reservadas", Integer.class, 10);
+        int replicas = environment.getProperty("app.replicas", Integer.class, 1);
+
+        int sugerido = calcular(Runtime.getRuntime().availableProcessors(), maxConexiones, reservadas, replicas);
+        // Última en prioridad: cualquier valor explícito de db.pool.sugerido le gana
+        environment.getPropertySources().addLast(new MapPropertySource("tamanioPoolConexiones",
+                Map.of(PROPIEDAD, sugerido)));
+    }
+
+    static int calcular(int nucleos, int maxConexiones, int reservadas, int replicas) {
+        int porCpu = nucleos * 2 + 1;
+        int porBase = (maxConexiones - reservadas) / Math.max(replicas, 1);
+        return Math.max(Math.min(porCpu, porBase), MINIMO);
+    }
+}
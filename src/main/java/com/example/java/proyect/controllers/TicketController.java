@@ -2,24 +2,53 @@ package com.example.java.proyect.controllers;
 
 // 🚀 Importaciones necesarias
 
+import java.io.IOException;      // ⚠️ Error al leer el cuerpo de la petición
+import java.io.InputStream;      // 📥 Cuerpo de la petición leído en streaming
+import java.time.LocalDate;      // 📅 Fechas de los filtros de búsqueda
 import java.util.List;           // 📋 Lista de elementos, usada para manejar múltiples tickets
 import java.util.Map;       // ❓ Contenedor que puede o no tener un valor (evita null)
 import java.util.Optional;       // 🗂 Interfaz para colecciones clave-valor
 
 import org.springframework.beans.factory.annotation.Autowired;           // 🔌 Inyecta dependencias (servicios)
+import org.springframework.data.domain.Sort;                          // ↕️ Orden pedido (?sort=campo,desc)
+import org.springframework.format.annotation.DateTimeFormat;           // 📅 Fechas ISO en parámetros (2025-01-31)
+import org.springframework.http.CacheControl;                          // 🏷 Encabezado Cache-Control
+import org.springframework.http.HttpHeaders;                           // 🏷 Nombres de encabezados HTTP
+import org.springframework.http.HttpStatus;                            // 🚦 Códigos de estado HTTP
+import org.springframework.http.MediaType;                             // 🏷 Tipos de contenido (JSON, NDJSON)
 import org.springframework.http.ResponseEntity;                        // 📦 Envolver respuestas HTTP
+import org.springframework.orm.ObjectOptimisticLockingFailureException; // 🔒 Conflicto de versión
+import org.springframework.security.access.prepost.PreAuthorize;      // 🔐 Restringe endpoints por rol
+import org.springframework.security.core.Authentication;              // 👤 Usuario del JWT (email y rol)
 import org.springframework.web.bind.annotation.DeleteMapping;         // ❌ Mapea peticiones DELETE
+import org.springframework.web.bind.annotation.ExceptionHandler;      // ⚠️ Traduce excepciones a respuestas HTTP
 import org.springframework.web.bind.annotation.GetMapping;            // 🔎 Mapea peticiones GET
+import org.springframework.web.bind.annotation.PatchMapping;          // 🩹 Mapea peticiones PATCH
 import org.springframework.web.bind.annotation.PathVariable;          // 🏷 Captura variables de la URL
 import org.springframework.web.bind.annotation.PostMapping;           // ➕ Mapea peticiones POST
 import org.springframework.web.bind.annotation.PutMapping;            // ✏️ Mapea peticiones PUT
 import org.springframework.web.bind.annotation.RequestBody;           // 📥 Captura datos JSON enviados en el body
+import org.springframework.web.bind.annotation.RequestHeader;         // 🏷 Captura encabezados de la petición
 import org.springframework.web.bind.annotation.RequestMapping;        // 📍 Define ruta base del controlador
+import org.springframework.web.bind.annotation.RequestParam;          // ❔ Captura parámetros de la query (?a=b)
 import org.springframework.web.bind.annotation.RestController;       // ⚡ Indica que es un controlador REST
+import org.springframework.web.context.request.ServletWebRequest;     // 🏷 Petición condicional (If-None-Match → 304)
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;            // 📡 Conexión Server-Sent Events
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody; // 🌊 Respuesta escrita de a partes
 
+import com.example.java.proyect.entities.TicketTransicionEntity;     // 🕓 Cambio de estado del historial
+import com.example.java.proyect.models.requests.TicketEstadoMasivoRequestModel; // 🔁 Cambio de estado masivo
+import com.example.java.proyect.models.requests.TicketFiltroRequestModel; // 🔎 Filtros del listado
 import com.example.java.proyect.models.requests.TicketModel;          // 🗃 Modelo de ticket (entidad)
+import com.example.java.proyect.models.responses.TicketMasivoRest;    // 📦 Resultado de operaciones masivas
+import com.example.java.proyect.models.responses.TicketPaginaRest;    // 📄 Página de tickets con cursor
+import com.example.java.proyect.models.responses.TicketSlaRest;       // ⏱️ Tiempos por estado
+import com.example.java.proyect.models.responses.TicketVersionRest;   // 🔒 Versión nueva tras un PATCH
 import com.example.java.proyect.service.EmailService;                 // 📧 Servicio para enviar emails
+import com.example.java.proyect.service.TicketCambios;                // 🏷️ Contador de cambios (ETag)
+import com.example.java.proyect.service.TicketEventBus;               // 📡 Eventos de cambios de tickets
 import com.example.java.proyect.service.TicketService;
+import com.example.java.proyect.service.TicketSlaStats;               // ⏱️ Tiempos por estado (en memoria)
 /*
 📦 FLUJO DE DATOS PARA OPERACIONES CON TICKETS:Recibe la petición del frontend
 
@@ -38,6 +67,18 @@ public class TicketController {
     @Autowired
     private TicketService ticketService; // Inyectamos el servicio de tickets
 
+    @Autowired
+    private TicketEventBus ticketEventBus; // Reparte los cambios de tickets por SSE
+
+    @Autowired
+    private TicketSlaStats ticketSlaStats; // Tiempos por estado (en memoria)
+
+    @Autowired
+    private TicketCambios ticketCambios; // Contador de cambios para los ETag
+
+    // El navegador puede guardar la respuesta, pero siempre pregunta antes de usarla (If-None-Match)
+    private static final String REVALIDAR = CacheControl.noCache().cachePrivate().getHeaderValue();
+
     // ✅ Crear un nuevo ticket
     @PostMapping
     public TicketModel crear(@RequestBody TicketModel ticket) {
@@ -45,22 +86,103 @@ public class TicketController {
         return ticketService.crearTicket(ticket); // Se guarda y se devuelve el ticket completo
     }
 
-    // 📊 Endpoint para obtener estadísticas de tickets
+    // 📊 Endpoint para obtener estadísticas de tickets (304 si no cambió nada desde el último pedido)
     @GetMapping("/estadisticas")
-    public Map<String, Long> obtenerEstadisticas() {
+    public Map<String, Long> obtenerEstadisticas(ServletWebRequest request) {
+    if (sinCambios(request, ticketCambios.etag())) {
+        return null;
+    }
     return ticketService.obtenerEstadisticas();
     }
     
-    //📊 Endpoint para obtener estadísticas de tickes por mes para el grafico
+    //📊 Endpoint para obtener estadísticas de tickes por mes para el grafico (304 si no cambió nada)
     @GetMapping("/por-mes")
-    public List<Map<String, Object>> getTicketsPorMes() {
+    public List<Map<String, Object>> getTicketsPorMes(ServletWebRequest request) {
+    if (sinCambios(request, ticketCambios.etagMensual())) {
+        return null;
+    }
     return ticketService.obtenerTicketsPorMes();
     }
 
+    // ⏱️ Tiempo en cada estado por mes y prioridad (promedio, mediana y p95 en horas), últimos "meses" meses
+    @PreAuthorize("hasAuthority('ROLE_ADMIN')")
+    @GetMapping("/sla")
+    public List<TicketSlaRest> obtenerSla(@RequestParam(defaultValue = "12") int meses) {
+        return ticketSlaStats.resumen(meses);
+    }
+
+    // 📥 Importación masiva (solo admin): JSON (array o NDJSON) o CSV con encabezado, leído en streaming
+    // curl -X POST -H "Content-Type: text/csv" --data-binary @tickets.csv .../tickets/importar
+    @PreAuthorize("hasAuthority('ROLE_ADMIN')")
+    @PostMapping(value = "/importar", consumes = { MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE, "text/csv" })
+    public TicketMasivoRest importar(@RequestHeader(HttpHeaders.CONTENT_TYPE) String tipo, InputStream cuerpo) throws IOException {
+        return ticketService.importarTickets(cuerpo, tipo.startsWith("text/csv"));
+    }
+
+    // 🔁 Cambio de estado masivo (solo admin): { "ids": [...], "estado": "listo" }
+    @PreAuthorize("hasAuthority('ROLE_ADMIN')")
+    @PutMapping("/estado")
+    public TicketMasivoRest actualizarEstadoMasivo(@RequestBody TicketEstadoMasivoRequestModel pedido) {
+        return ticketService.actualizarEstadoMasivo(pedido.getIds(), pedido.getEstado());
+    }
+
+    // ⚠️ Datos inválidos en una operación masiva (fila mal formada, falta el estado, etc.)
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<String> datosInvalidos(IllegalArgumentException e) {
+        return ResponseEntity.badRequest().body(e.getMessage());
+    }
+
     // 🔎 Obtener todos los tickets (uso interno o para el administrador)
+    // Filtros opcionales (ver TicketFiltroRequestModel), orden y columnas, resueltos en la base:
+    // /tickets?estado=pendiente&creadoDesde=2025-01-01&sort=fechaCreacion,desc&fields=id,estado,prioridad
+    // Si el panel manda el ETag de la última respuesta y ningún ticket cambió: 304 sin tocar la base
     @GetMapping
-    public List<TicketModel> listarTodos() {
-        return ticketService.listarTodos();
+    public List<?> listarTodos(TicketFiltroRequestModel filtro, Sort sort,
+                               @RequestParam(required = false) String fields, ServletWebRequest request) {
+        if (sinCambios(request, ticketCambios.etag())) {
+            return null;
+        }
+        return ticketService.listar(filtro, sort, fields);
+    }
+
+    // 📄 Tickets paginados por cursor: /tickets/pagina?despuesDe=<último id>&tamanio=50
+    @GetMapping("/pagina")
+    public TicketPaginaRest listarPagina(@RequestParam(required = false) Long despuesDe,
+                                         @RequestParam(required = false) Integer tamanio) {
+        return ticketService.listarPagina(despuesDe, tamanio);
+    }
+
+    // 🔍 Búsqueda de texto en descripción y solución (solo admin), ordenada por relevancia
+    // /tickets/buscar?q=pantalla rota&estado=pendiente&prioridad=alta&desde=2025-01-01&hasta=2025-06-30&limite=20
+    @PreAuthorize("hasAuthority('ROLE_ADMIN')")
+    @GetMapping("/buscar")
+    public List<TicketModel> buscar(@RequestParam(required = false) String q,
+                                    @RequestParam(required = false) String estado,
+                                    @RequestParam(required = false) String prioridad,
+                                    @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate desde,
+                                    @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hasta,
+                                    @RequestParam(required = false) Integer limite) {
+        return ticketService.buscar(q, estado, prioridad, desde, hasta, limite);
+    }
+
+    // 🌊 Exporta todos los tickets en streaming: NDJSON por defecto, o ?formato=array para un array JSON
+    @GetMapping("/stream")
+    public ResponseEntity<StreamingResponseBody> exportarTodos(@RequestParam(defaultValue = "ndjson") String formato) {
+        boolean comoArray = "array".equalsIgnoreCase(formato);
+        StreamingResponseBody cuerpo = out -> ticketService.exportarTodos(out, comoArray);
+        return ResponseEntity.ok()
+                .contentType(comoArray ? MediaType.APPLICATION_JSON : MediaType.APPLICATION_NDJSON)
+                .body(cuerpo);
+    }
+
+    // 📡 Cambios de tickets en vivo (Server-Sent Events) en vez de consultar /tickets cada tanto
+    // Eventos: creado, actualizado, eliminado, importados. Admin: todos los tickets; cliente: solo los suyos
+    // const fuente = new EventSource(...) — el navegador se reconecta solo si se corta
+    @GetMapping(value = "/eventos", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter eventos(Authentication usuario) {
+        boolean admin = usuario.getAuthorities().stream()
+                .anyMatch(rol -> "ROLE_ADMIN".equals(rol.getAuthority()));
+        return ticketEventBus.suscribir(usuario.getName(), admin);
     }
 
     // 🔎 Buscar ticket por ID (para clientes o seguimiento rápido)
@@ -70,16 +192,53 @@ public class TicketController {
     }
 
     // 🔎 Buscar todos los tickets por email del cliente (seguimiento de su historial)
+    // (304 si ningún ticket cambió desde el último pedido)
     @GetMapping("/cliente/{email}")
-    public List<TicketModel> listarPorCliente(@PathVariable String email) {
+    public List<TicketModel> listarPorCliente(@PathVariable String email, ServletWebRequest request) {
+        if (sinCambios(request, ticketCambios.etag())) {
+            return null;
+        }
         return ticketService.listarPorCliente(email);
     }
 
+    // 🕓 Historial de cambios de estado de un ticket (quién, cuándo y cuánto estuvo en cada estado)
+    @PreAuthorize("hasAuthority('ROLE_ADMIN')")
+    @GetMapping("/{id}/transiciones")
+    public List<TicketTransicionEntity> historial(@PathVariable Long id) {
+        return ticketService.historial(id);
+    }
+
     // ✏️ Actualizar estado y solución del ticket (solo por administrador)
+    @PreAuthorize("hasAuthority('ROLE_ADMIN')")
     @PutMapping("/{id}")
     public TicketModel actualizar(@PathVariable Long id, @RequestBody TicketModel datosActualizados) {
         return ticketService.actualizarTicket(id, datosActualizados);
     }
+
+    // 🩹 Edición parcial: solo los campos enviados + "version" (la que el admin tiene en pantalla)
+    // Responde { id, version } con la versión nueva, o 409 si otro admin lo modificó antes
+    @PreAuthorize("hasAuthority('ROLE_ADMIN')")
+    @PatchMapping("/{id}")
+    public TicketVersionRest parchear(@PathVariable Long id, @RequestBody TicketModel cambios) {
+        return ticketService.parchearTicket(id, cambios);
+    }
+
+    // 🔒 Otro admin guardó el ticket antes (la versión enviada ya no es la actual)
+    @ExceptionHandler(ObjectOptimisticLockingFailureException.class)
+    public ResponseEntity<String> conflictoDeVersion() {
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .body("El ticket fue modificado por otra persona. Recargalo y volvé a intentar.");
+    }
+
+    /**
+     * 🏷️ Pone el ETag y el Cache-Control en la respuesta y compara con If-None-Match.
+     * true = el cliente ya tiene esta versión: Spring responde 304 sin cuerpo (el método devuelve null).
+     */
+    private boolean sinCambios(ServletWebRequest request, String etag) {
+        request.getResponse().setHeader(HttpHeaders.CACHE_CONTROL, REVALIDAR);
+        return request.checkNotModified(etag);
+    }
+
     @DeleteMapping("/{id}")
     public ResponseEntity<?> eliminar(@PathVariable Long id) {
     ticketService.eliminarTicket(id);
@@ -34,9 +34,10 @@ package com.example.java.proyect.controllers;
 // 📦 Importaciones necesarias para controladores, modelos, seguridad, etc.
 import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -50,9 +51,15 @@ import com.example.java.proyect.entities.UserEntity;
 import com.example.java.proyect.models.requests.UserDetailRequestModel;
 import com.example.java.proyect.models.requests.UserLoginRequestModel;
 import com.example.java.proyect.models.responses.UserRest;
+import com.example.java.proyect.service.HashingSaturadoException;
+import com.example.java.proyect.service.LoginRateLimiter;
+import com.example.java.proyect.service.PasswordHashingService;
 import com.example.java.proyect.service.UserServiceInterface;
 import com.example.java.proyect.share.dto.UserDto;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+
 /**
  * 🎯 Controlador REST para operaciones relacionadas a usuarios:
  * - Registro
@@ -70,7 +77,13 @@ public class UserController {
     UserRepository userRepository;
 
     @Autowired
-    BCryptPasswordEncoder passwordEncoder;
+    PasswordHashingService passwordHashing; // 🔐 BCrypt en pool acotado (429 si está saturado)
+
+    @Autowired
+    LoginRateLimiter loginRateLimiter;      // 🚧 Intentos de login por IP y por email
+
+    @Autowired
+    MeterRegistry meterRegistry; // 📈 Métricas de login (éxitos / rechazos)
 
     /**
      * 🧪 Endpoint de prueba
@@ -105,6 +118,7 @@ public class UserController {
     /**
      * 🔐 Login de usuario
      *
+     * 0. Limita los intentos por IP y por email (429 si se pasan).
      * 1. Verifica que el usuario exista.
      * 2. Compara la contraseña enviada con la encriptada en la base.
      * 3. Si es correcta, genera un token JWT con email y rol.
@@ -112,19 +126,32 @@ public class UserController {
      */
     // Este endpoint maneja el inicio de sesión de usuarios y devuelve un JWT si las credenciales son válidas.
     @PostMapping("/login")
-    public ResponseEntity<?> login(@RequestBody UserLoginRequestModel loginRequest) {
+    public ResponseEntity<?> login(@RequestBody UserLoginRequestModel loginRequest, HttpServletRequest request) {
+    // 0️⃣ Frenar ráfagas antes de gastar CPU en BCrypt
+    if (!loginRateLimiter.permitir(request.getRemoteAddr(), loginRequest.getEmail())) {
+        meterRegistry.counter("auth.login", "resultado", "limitado").increment();
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header("Retry-After", "60")
+                .body("Demasiados intentos, esperá un minuto");
+    }
+
     // 1️⃣ Buscar usuario por email
     UserEntity user = userRepository.findByEmail(loginRequest.getEmail());
 
     // 2️⃣ Validar existencia y contraseña
-    if (user == null || !passwordEncoder.matches(loginRequest.getPassword(), user.getEncryptedPassword())) {
+    if (user == null || !passwordHashing.verificar(loginRequest.getPassword(), user.getEncryptedPassword())) {
+        meterRegistry.counter("auth.login", "resultado", "rechazado").increment();
         return ResponseEntity
                 .status(HttpStatus.UNAUTHORIZED)
                 .body("Credenciales inválidas");
     }
 
+    // 🔁 Si el hash es de una fuerza vieja, se re-cifra en segundo plano (no demora la respuesta)
+    userService.actualizarHashSiCorresponde(user.getId(), loginRequest.getPassword(), user.getEncryptedPassword());
+
     // 3️⃣ Generar token JWT con email y rol
     String token = JWTUtil.generateToken(user.getEmail(), user.getRole());
+    meterRegistry.counter("auth.login", "resultado", "exitoso").increment();
 
     // 4️⃣ También podrías devolver más información (email, rol, token)
     return ResponseEntity.ok().body(token);
@@ -140,4 +167,21 @@ public ResponseEntity<UserDto> obtenerUsuarioPorEmail(@PathVariable String email
     }
 }
 
+/**
+ * ⏳ El pool de BCrypt está lleno (login o registro): que el cliente reintente en un momento
+ */
+@ExceptionHandler(HashingSaturadoException.class)
+public ResponseEntity<String> hashingSaturado(HashingSaturadoException e) {
+    meterRegistry.counter("auth.login", "resultado", "saturado").increment();
+    return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).header("Retry-After", "1").body(e.getMessage());
+}
+
+/**
+ * ⚠️ Registro con un email que ya existe (índice único en users.email)
+ */
+@ExceptionHandler(DataIntegrityViolationException.class)
+public ResponseEntity<String> emailDuplicado() {
+    return ResponseEntity.status(HttpStatus.CONFLICT).body("El email ya está registrado");
+}
+
 }
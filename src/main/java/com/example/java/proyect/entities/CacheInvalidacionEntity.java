@@ -0,0 +1,70 @@
+package com.example.java.proyect.entities;
+
+import java.time.Instant;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+
+/**
+ * Clase entidad que representa la tabla "cache_invalidacion".
+ *
+ * Canal entre réplicas de la app: cada réplica anota acá lo que cambió (ticket o usuario)
+ * y las demás lo leen cada pocos segundos para sacarlo de sus cachés en memoria.
+ * Las filas viven una hora. La tabla la lee y escribe InvalidacionEntreReplicas con JDBC.
+ */
+@Entity
+@Table(name = "cache_invalidacion",
+       indexes = @Index(name = "idx_cache_invalidacion_creado_en", columnList = "creadoEn"))
+public class CacheInvalidacionEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // Réplica que hizo el cambio (no se aplica a sí misma)
+    @Column(nullable = false, length = 36)
+    private String origen;
+
+    // "ticket" o "usuario"
+    @Column(nullable = false, length = 20)
+    private String entidad;
+
+    // ID de la entidad (null = toda la región)
+    private Long entidadId;
+
+    // Clave en las cachés de Spring: email del cliente (ticketsPorCliente) o del usuario (usuariosPorEmail)
+    private String clave;
+
+    // Hora de la base (no de la réplica, así no importa si los relojes difieren)
+    @Column(nullable = false)
+    private Instant creadoEn;
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getOrigen() {
+        return origen;
+    }
+
+    public String getEntidad() {
+        return entidad;
+    }
+
+    public Long getEntidadId() {
+        return entidadId;
+    }
+
+    public String getClave() {
+        return clave;
+    }
+
+    public Instant getCreadoEn() {
+        return creadoEn;
+    }
+}
@@ -0,0 +1,172 @@
+package com.example.java.proyect.entities;
+
+import java.time.Instant;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Lob;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.Table;
+
+/**
+ * Clase entidad que representa la tabla "email_outbox" (bandeja de salida de emails).
+ *
+ * Cada fila es un email pendiente de envío. Se inserta en la misma transacción
+ * que el cambio del ticket, y un proceso en segundo plano (EmailOutboxDispatcher)
+ * la envía después, reintentando si el servidor SMTP falla.
+ */
+@Entity
+@Table(name = "email_outbox",
+       indexes = @Index(name = "idx_email_outbox_estado_proximo", columnList = "estado, proximoIntento"))
+public class EmailOutboxEntity {
+
+    /**
+     * Estados posibles de un email en la bandeja de salida.
+     */
+    public enum Estado {
+        PENDIENTE, // Esperando ser enviado (o reintentado)
+        ENVIANDO,  // Tomado por un dispatcher, en proceso de envío
+        ENVIADO,   // Enviado correctamente
+        FALLIDO    // Se agotaron los reintentos
+    }
+
+    // ID interno (autogenerado)
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // Email del destinatario
+    @Column(nullable = false)
+    private String destinatario;
+
+    // Asunto del correo
+    @Column(nullable = false)
+    private String asunto;
+
+    // Cuerpo HTML ya armado (MEDIUMTEXT en MySQL: un @Lob sin largo queda como TINYTEXT, 255 bytes)
+    @Lob
+    @Column(nullable = false, length = 16_777_215)
+    private String cuerpoHtml;
+
+    // Estado actual del envío
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private Estado estado = Estado.PENDIENTE;
+
+    // Cantidad de intentos de envío realizados
+    @Column(nullable = false)
+    private int intentos = 0;
+
+    // Momento a partir del cual se puede (re)intentar el envío
+    @Column(nullable = false)
+    private Instant proximoIntento;
+
+    // Último error devuelto por el servidor SMTP (si hubo)
+    @Column(length = 1000)
+    private String ultimoError;
+
+    // Momento en que se encoló el email
+    @Column(nullable = false)
+    private Instant creadoEn;
+
+    // Momento en que se envió correctamente
+    private Instant enviadoEn;
+
+    @PrePersist
+    protected void onCreate() {
+        if (creadoEn == null) {
+            creadoEn = Instant.now();
+        }
+        if (proximoIntento == null) {
+            proximoIntento = creadoEn;
+        }
+    }
+
+    // Getters y Setters
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getDestinatario() {
+        return destinatario;
+    }
+
+    public void setDestinatario(String destinatario) {
+        this.destinatario = destinatario;
+    }
+
+    public String getAsunto() {
+        return asunto;
+    }
+
+    public void setAsunto(String asunto) {
+        this.asunto = asunto;
+    }
+
+    public String getCuerpoHtml() {
+        return cuerpoHtml;
+    }
+
+    public void setCuerpoHtml(String cuerpoHtml) {
+        this.cuerpoHtml = cuerpoHtml;
+    }
+
+    public Estado getEstado() {
+        return estado;
+    }
+
+    public void setEstado(Estado estado) {
+        this.estado = estado;
+    }
+
+    public int getIntentos() {
+        return intentos;
+    }
+
+    public void setIntentos(int intentos) {
+        this.intentos = intentos;
+    }
+
+    public Instant getProximoIntento() {
+        return proximoIntento;
+    }
+
+    public void setProximoIntento(Instant proximoIntento) {
+        this.proximoIntento = proximoIntento;
+    }
+
+    public String getUltimoError() {
+        return ultimoError;
+    }
+
+    public void setUltimoError(String ultimoError) {
+        this.ultimoError = ultimoError;
+    }
+
+    public Instant getCreadoEn() {
+        return creadoEn;
+    }
+
+    public void setCreadoEn(Instant creadoEn) {
+        this.creadoEn = creadoEn;
+    }
+
+    public Instant getEnviadoEn() {
+        return enviadoEn;
+    }
+
+    public void setEnviadoEn(Instant enviadoEn) {
+        this.enviadoEn = enviadoEn;
+    }
+}
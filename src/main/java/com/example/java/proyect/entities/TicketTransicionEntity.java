@@ -0,0 +1,108 @@
+package com.example.java.proyect.entities;
+
+import java.time.Instant;
+
+import org.hibernate.annotations.Immutable;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.TableGenerator;
+
+/**
+ * Clase entidad que representa la tabla "ticket_transicion": historial de cambios de estado.
+ *
+ * Cada cambio de estado de un ticket agrega una fila en la misma transacción que el cambio.
+ * Las filas nunca se modifican ni se borran (tampoco al eliminar el ticket): son la fuente
+ * de las métricas de tiempo por etapa (TicketSlaStats) y del historial de cada ticket.
+ */
+@Entity
+@Immutable // Solo INSERT: Hibernate nunca genera UPDATE para esta entidad
+@Table(name = "ticket_transicion", indexes = {
+    @Index(name = "idx_ticket_transicion_ticket", columnList = "ticketId, instante"),
+    @Index(name = "idx_ticket_transicion_instante", columnList = "instante")
+})
+public class TicketTransicionEntity {
+
+    // ID por bloques de id_generadores (como los tickets): los cambios masivos insertan en lotes JDBC
+    @Id
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "ticket_transicion_ids")
+    @TableGenerator(name = "ticket_transicion_ids", table = "id_generadores", pkColumnName = "entidad",
+            valueColumnName = "siguiente", pkColumnValue = "ticket_transicion", allocationSize = 50)
+    private Long id;
+
+    // Ticket que cambió (sin clave foránea: el historial sobrevive al ticket)
+    @Column(nullable = false)
+    private Long ticketId;
+
+    // Estado anterior (null si no tenía) y estado nuevo
+    private String desde;
+
+    @Column(nullable = false)
+    private String hacia;
+
+    // Momento del cambio
+    @Column(nullable = false)
+    private Instant instante;
+
+    // Quién hizo el cambio (email del JWT, o "sistema")
+    @Column(nullable = false)
+    private String actor;
+
+    // Prioridad del ticket al momento del cambio (las métricas se agrupan por prioridad)
+    private String prioridad;
+
+    // Segundos que el ticket pasó en el estado "desde" (null si no se sabe cuándo entró)
+    private Long segundosEnEstado;
+
+    protected TicketTransicionEntity() {
+        // Para JPA
+    }
+
+    public TicketTransicionEntity(Long ticketId, String desde, String hacia, Instant instante, String actor,
+                                  String prioridad, Long segundosEnEstado) {
+        this.ticketId = ticketId;
+        this.desde = desde;
+        this.hacia = hacia;
+        this.instante = instante;
+        this.actor = actor;
+        this.prioridad = prioridad;
+        this.segundosEnEstado = segundosEnEstado;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getTicketId() {
+        return ticketId;
+    }
+
+    public String getDesde() {
+        return desde;
+    }
+
+    public String getHacia() {
+        return hacia;
+    }
+
+    public Instant getInstante() {
+        return instante;
+    }
+
+    public String getActor() {
+        return actor;
+    }
+
+    public String getPrioridad() {
+        return prioridad;
+    }
+
+    public Long getSegundosEnEstado() {
+        return segundosEnEstado;
+    }
+}
@@ -1,15 +1,26 @@
 package com.example.java.proyect.entities;
 import java.io.Serializable;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
 
 /**
  * Clase entidad que representa la tabla "users" en la base de datos.
+ * El email es único (índice uk_users_email): login y búsquedas por email no recorren la tabla.
+ * Se guarda en la caché de segundo nivel de Hibernate (región "usuarios", ver application.conf).
  */
 @Entity(name = "users")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "usuarios")
+@Table(indexes = @Index(name = "uk_users_email", columnList = "email", unique = true))
 public class UserEntity implements Serializable {
 
     private static final long serialVersionUID = 1L;
@@ -0,0 +1,29 @@
+package com.example.java.proyect.models.requests;
+
+import java.util.List;
+
+/**
+ * 🔁 Cuerpo de PUT /tickets/estado: pasa todos los tickets indicados al mismo estado.
+ * Ejemplo: { "ids": [12, 15, 40], "estado": "listo" }
+ */
+public class TicketEstadoMasivoRequestModel {
+
+    private List<Long> ids;
+    private String estado;
+
+    public List<Long> getIds() {
+        return ids;
+    }
+
+    public void setIds(List<Long> ids) {
+        this.ids = ids;
+    }
+
+    public String getEstado() {
+        return estado;
+    }
+
+    public void setEstado(String estado) {
+        this.estado = estado;
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.java.proyect.models.requests;
+
+import java.time.LocalDate;
+
+import org.springframework.format.annotation.DateTimeFormat;
+
+/**
+ * 🔎 Filtros opcionales de GET /tickets (parámetros de la URL). Las fechas van en formato ISO.
+ * Ejemplo: /tickets?estado=pendiente&prioridad=alta&creadoDesde=2025-01-01&precioMax=50000
+ * Los rangos incluyen los extremos; si no viene ningún filtro se listan todos los tickets.
+ */
+public class TicketFiltroRequestModel {
+
+    private String estado;
+    private String prioridad;
+    private String clienteEmail;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate creadoDesde;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate creadoHasta;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate listoDesde;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate listoHasta;
+
+    private Double precioMin;
+    private Double precioMax;
+
+    // ✅ true si no se pidió ningún filtro
+    public boolean estaVacio() {
+        return estado == null && prioridad == null && clienteEmail == null
+                && creadoDesde == null && creadoHasta == null
+                && listoDesde == null && listoHasta == null
+                && precioMin == null && precioMax == null;
+    }
+
+    public String getEstado() {
+        return estado;
+    }
+
+    public void setEstado(String estado) {
+        this.estado = estado;
+    }
+
+    public String getPrioridad() {
+        return prioridad;
+    }
+
+    public void setPrioridad(String prioridad) {
+        this.prioridad = prioridad;
+    }
+
+    public String getClienteEmail() {
+        return clienteEmail;
+    }
+
+    public void setClienteEmail(String clienteEmail) {
+        this.clienteEmail = clienteEmail;
+    }
+
+    public LocalDate getCreadoDesde() {
+        return creadoDesde;
+    }
+
+    public void setCreadoDesde(LocalDate creadoDesde) {
+        this.creadoDesde = creadoDesde;
+    }
+
+    public LocalDate getCreadoHasta() {
+        return creadoHasta;
+    }
+
+    public void setCreadoHasta(LocalDate creadoHasta) {
+        this.creadoHasta = creadoHasta;
+    }
+
+    public LocalDate getListoDesde() {
+        return listoDesde;
+    }
+
+    public void setListoDesde(LocalDate listoDesde) {
+        this.listoDesde = listoDesde;
+    }
+
+    public LocalDate getListoHasta() {
+        return listoHasta;
+    }
+
+    public void setListoHasta(LocalDate listoHasta) {
+        this.listoHasta = listoHasta;
+    }
+
+    public Double getPrecioMin() {
+        return precioMin;
+    }
+
+    public void setPrecioMin(Double precioMin) {
+        this.precioMin = precioMin;
+    }
+
+    public Double getPrecioMax() {
+        return precioMax;
+    }
+
+    public void setPrecioMax(Double precioMax) {
+        this.precioMax = precioMax;
+    }
+}
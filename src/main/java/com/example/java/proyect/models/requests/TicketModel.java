@@ -2,34 +2,72 @@
 package com.example.java.proyect.models.requests;
 
 // 🕓 Librerías para trabajar con fechas
+import java.time.Instant;
 import java.time.LocalDate;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
+import java.util.Locale;
 
+import org.hibernate.annotations.Cache;          // 👉 Región y estrategia de la caché de segundo nivel
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.DynamicUpdate;  // 👉 UPDATE solo de las columnas modificadas
+
+import com.fasterxml.jackson.annotation.JsonIgnore; // 👉 Campo interno: no se manda al frontend
+
+import jakarta.persistence.Cacheable;           // 👉 Habilita la caché de segundo nivel para la entidad
+import jakarta.persistence.Column;              // 👉 Configura la columna (nombre, largo, etc.)
 import jakarta.persistence.Entity;              // 👉 Marca la clase como entidad de base de datos
 import jakarta.persistence.GeneratedValue;     // 👉 Define que el valor del ID será generado automáticamente
 import jakarta.persistence.GenerationType;     // 👉 Especifica la estrategia de generación del ID
 import jakarta.persistence.Id;                 // 👉 Marca el campo que será la clave primaria
+import jakarta.persistence.Index;              // 👉 Declara índices de la tabla
 import jakarta.persistence.PrePersist;         // 👉 Método que se ejecuta antes de insertar en base de datos
+import jakarta.persistence.Table;              // 👉 Configura la tabla (nombre, índices, etc.)
+import jakarta.persistence.TableGenerator;     // 👉 Generador de IDs por bloques (tabla id_generadores)
+import jakarta.persistence.Version;            // 👉 Campo de versión para el bloqueo optimista
 
 /**
  * 🎯 Clase que representa un ticket de reparación.
  * Esta clase se guarda como una tabla en la base de datos gracias a la anotación @Entity.
  */
 @Entity  // 🏷️ Le dice a Spring y JPA que esta clase es una entidad persistente (una tabla en la base)
+@DynamicUpdate  // ✂️ Los UPDATE llevan solo las columnas que cambiaron (no la fila entera)
+@Cacheable      // 🗄️ Caché de segundo nivel de Hibernate: findById sin ir a MySQL (región "tickets", ver application.conf)
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "tickets")
+// 📇 Índices (declarados también en las migraciones de Flyway, src/main/resources/db/migration):
+// - fecha de creación: respalda el histograma mensual del dashboard
+// - email normalizado: búsqueda de tickets por cliente (/tickets/cliente/{email})
+// - estado/prioridad + fecha: filtros y orden del listado (GET /tickets?estado=...&creadoDesde=...)
+@Table(indexes = {
+    @Index(name = "idx_ticket_fecha_creacion", columnList = "fechaCreacion"),
+    @Index(name = "idx_ticket_cliente_email_normalizado", columnList = "cliente_email_normalizado"),
+    @Index(name = "idx_ticket_estado_fecha_creacion", columnList = "estado, fechaCreacion"),
+    @Index(name = "idx_ticket_prioridad_fecha_creacion", columnList = "prioridad, fechaCreacion"),
+    @Index(name = "idx_ticket_estado_fecha_listo", columnList = "estado, fechaListo")
+})
 public class TicketModel {
 
     // ------------------- Atributos -------------------
 
     // 🔑 ID único del ticket, es la clave primaria de la tabla y se genera automáticamente
     @Id  // 📌 Indica que este campo es la clave primaria
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
-    // 🔁 Estrategia IDENTITY: deja que la base de datos genere el ID (ej: AUTO_INCREMENT)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "ticket_ids")
+    // 🔁 Los IDs salen de la tabla id_generadores de a bloques de 50 (una consulta cada 50 tickets).
+    // Con IDENTITY (AUTO_INCREMENT) Hibernate tiene que insertar de a una fila para conocer el ID;
+    // así puede mandar los INSERT en lotes JDBC (ver importación masiva).
+    @TableGenerator(name = "ticket_ids", table = "id_generadores", pkColumnName = "entidad",
+            valueColumnName = "siguiente", pkColumnValue = "ticket_model", allocationSize = 50)
     private Long id;
 
     // 📧 Email del cliente que generó el ticket
     private String clienteEmail;
 
+    // 🔎 Mismo email en minúsculas y sin espacios: se busca por igualdad exacta y usa el índice
+    // (un "upper(cliente_email) = upper(?)" no puede usar ningún índice)
+    @JsonIgnore
+    @Column(name = "cliente_email_normalizado")
+    private String clienteEmailNormalizado;
+
     // 📝 Descripción del problema del dispositivo
     private String descripcionProblema;
 
@@ -62,7 +100,14 @@ public class TicketModel {
     // 📦 Fecha en que el ticket fue marcado como "Listo"
     private LocalDate fechaListo;
 
-    
+    // ⏱️ Momento exacto en que el ticket entró a su estado actual (para medir cuánto estuvo en cada etapa,
+    // ver TicketTransicionEntity). Las fechas de arriba solo guardan el día.
+    private Instant estadoDesde;
+
+    // 🔒 Versión del ticket (bloqueo optimista): cada UPDATE exige la versión leída y la incrementa.
+    // Si dos admins editan el mismo ticket, el segundo recibe 409 en vez de pisar los cambios del primero.
+    @Version
+    private Long version;
 
     // ------------------- Lógica para asignar fecha automáticamente -------------------
 
@@ -73,11 +118,15 @@ public class TicketModel {
     @PrePersist
 protected void onCreate() {
     // Si el admin ingresó fechaPendiente, usamos esa fecha como fechaCreacion también
+    this.clienteEmailNormalizado = normalizarEmail(this.clienteEmail);
     if (this.fechaCreacion == null) {
         this.fechaCreacion = this.fechaPendiente != null ? this.fechaPendiente : ZonedDateTime
             .now(ZoneId.of("America/Argentina/Buenos_Aires"))
             .toLocalDate();
     }
+    if (this.estadoDesde == null) {
+        this.estadoDesde = Instant.now();
+    }
         
     }
 
@@ -98,6 +147,18 @@ protected void onCreate() {
 
     public void setClienteEmail(String clienteEmail) {
         this.clienteEmail = clienteEmail;
+        this.clienteEmailNormalizado = normalizarEmail(clienteEmail); // 🔁 Siempre en sincronía
+    }
+
+    public String getClienteEmailNormalizado() {
+        return clienteEmailNormalizado;
+    }
+
+    /**
+     * 🔡 Forma canónica de un email para guardar y buscar: sin espacios y en minúsculas.
+     */
+    public static String normalizarEmail(String email) {
+        return email == null ? null : email.trim().toLowerCase(Locale.ROOT);
     }
 
     public String getDescripcionProblema() {
@@ -179,4 +240,20 @@ public void setNotificarCliente(Boolean notificarCliente) {
     public void setFechaListo(LocalDate fechaListo) {
         this.fechaListo = fechaListo;
     }
+
+    public Instant getEstadoDesde() {
+        return estadoDesde;
+    }
+
+    public void setEstadoDesde(Instant estadoDesde) {
+        this.estadoDesde = estadoDesde;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,25 @@
+package com.example.java.proyect.models.responses;
+
+/**
+ * 📦 Respuesta de las operaciones masivas de tickets.
+ * - procesados: tickets importados (POST /tickets/importar) o que cambiaron de estado (PUT /tickets/estado).
+ * - notificados: emails de aviso encolados para los clientes.
+ */
+public class TicketMasivoRest {
+
+    private final int procesados;
+    private final int notificados;
+
+    public TicketMasivoRest(int procesados, int notificados) {
+        this.procesados = procesados;
+        this.notificados = notificados;
+    }
+
+    public int getProcesados() {
+        return procesados;
+    }
+
+    public int getNotificados() {
+        return notificados;
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.java.proyect.models.responses;
+
+import java.util.List;
+
+import com.example.java.proyect.models.requests.TicketModel;
+
+/**
+ * 📄 Respuesta de GET /tickets/pagina (paginación por cursor).
+ * - tickets: los tickets de esta página, ordenados por id.
+ * - siguiente: cursor para pedir la próxima página (?despuesDe=siguiente),
+ *   o null si ya no quedan más tickets.
+ */
+public class TicketPaginaRest {
+
+    private final List<TicketModel> tickets;
+    private final Long siguiente;
+
+    public TicketPaginaRest(List<TicketModel> tickets, Long siguiente) {
+        this.tickets = tickets;
+        this.siguiente = siguiente;
+    }
+
+    public List<TicketModel> getTickets() {
+        return tickets;
+    }
+
+    public Long getSiguiente() {
+        return siguiente;
+    }
+}
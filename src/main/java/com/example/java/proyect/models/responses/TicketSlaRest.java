@@ -0,0 +1,61 @@
+package com.example.java.proyect.models.responses;
+
+/**
+ * ⏱️ Fila de GET /tickets/sla: cuánto tiempo pasaron los tickets en un estado.
+ * Agrupado por el mes en que salieron del estado y por prioridad. Tiempos en horas.
+ */
+public class TicketSlaRest {
+
+    private final int anio;
+    private final int mes;
+    private final String prioridad;
+    private final String estado;
+    private final long cantidad;
+    private final double promedioHoras;
+    private final double p50Horas;
+    private final double p95Horas;
+
+    public TicketSlaRest(int anio, int mes, String prioridad, String estado, long cantidad,
+                         double promedioHoras, double p50Horas, double p95Horas) {
+        this.anio = anio;
+        this.mes = mes;
+        this.prioridad = prioridad;
+        this.estado = estado;
+        this.cantidad = cantidad;
+        this.promedioHoras = promedioHoras;
+        this.p50Horas = p50Horas;
+        this.p95Horas = p95Horas;
+    }
+
+    public int getAnio() {
+        return anio;
+    }
+
+    public int getMes() {
+        return mes;
+    }
+
+    public String getPrioridad() {
+        return prioridad;
+    }
+
+    public String getEstado() {
+        return estado;
+    }
+
+    public long getCantidad() {
+        return cantidad;
+    }
+
+    public double getPromedioHoras() {
+        return promedioHoras;
+    }
+
+    public double getP50Horas() {
+        return p50Horas;
+    }
+
+    public double getP95Horas() {
+        return p95Horas;
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.java.proyect.models.responses;
+
+/**
+ * 🔒 Respuesta de PATCH /tickets/{id}: el ticket quedó guardado con esta versión.
+ * El frontend la manda en la próxima edición (si otro la cambió antes, recibe 409).
+ */
+public class TicketVersionRest {
+
+    private final Long id;
+    private final Long version;
+
+    public TicketVersionRest(Long id, Long version) {
+        this.id = id;
+        this.version = version;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.java.proyect.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.example.java.proyect.entities.EmailOutboxEntity;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.internet.MimeMessage;
+
+/**
+ * 🚚 Proceso en segundo plano que vacía la bandeja de salida de emails.
+ *
+ * Cada cierto intervalo reclama los emails pendientes acumulados desde la ronda anterior
+ * y los envía en lotes: cada lote viaja por una sola conexión SMTP, así el handshake
+ * TCP + TLS + AUTH se paga una vez por lote y no una vez por email. Los lotes se envían
+ * en paralelo usando hilos virtuales (email.outbox.conexiones conexiones a la vez).
+ * El resultado de cada email (éxito o fallo con reintento) queda registrado en la base.
+ */
+@Component
+public class EmailOutboxDispatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(EmailOutboxDispatcher.class);
+
+    private final EmailOutboxService outboxService;
+    private final EmailService emailService;
+
+    // Un hilo virtual por conexión SMTP
+    private final ExecutorService ejecutor = Executors.newVirtualThreadPerTaskExecutor();
+
+    // Cantidad máxima de emails que se toman por ronda
+    @Value("${email.outbox.lote:50}")
+    private int tamanioLote;
+
+    // Conexiones SMTP simultáneas por ronda
+    @Value("${email.outbox.conexiones:2}")
+    private int conexiones;
+
+    public EmailOutboxDispatcher(EmailOutboxService outboxService, EmailService emailService) {
+        this.outboxService = outboxService;
+        this.emailService = emailService;
+    }
+
+    /**
+     * 🔁 Toma los emails pendientes y los envía por lotes. Espera a que terminen todos
+     * antes de la próxima ronda, así no se reclaman emails que todavía se están enviando.
+     */
+    @Scheduled(fixedDelayString = "${email.outbox.intervalo-ms:2000}")
+    public void despachar() throws InterruptedException {
+        List<EmailOutboxEntity> pendientes = outboxService.reclamarLote(tamanioLote);
+        if (pendientes.isEmpty()) {
+            return;
+        }
+
+        // Repartimos los emails entre las conexiones disponibles
+        int porConexion = (pendientes.size() + conexiones - 1) / conexiones;
+        List<Callable<Void>> envios = new ArrayList<>();
+        for (int i = 0; i < pendientes.size(); i += porConexion) {
+            List<EmailOutboxEntity> lote = pendientes.subList(i, Math.min(i + porConexion, pendientes.size()));
+            envios.add(() -> {
+                enviar(lote);
+                return null;
+            });
+        }
+        ejecutor.invokeAll(envios);
+    }
+
+    private void enviar(List<EmailOutboxEntity> lote) {
+        Map<MimeMessage, EmailOutboxEntity> mensajes = new HashMap<>();
+        for (EmailOutboxEntity email : lote) {
+            try {
+                mensajes.put(emailService.crearMensajeHtml(email.getDestinatario(), email.getAsunto(), email.getCuerpoHtml()), email);
+            } catch (Exception e) {
+                registrarFallo(email, e); // Dirección inválida o similar: no entra al lote
+            }
+        }
+
+        Map<MimeMessage, Exception> fallidos = emailService.enviarLote(new ArrayList<>(mensajes.keySet()));
+
+        mensajes.forEach((mensaje, email) -> {
+            Exception error = fallidos.get(mensaje);
+            if (error == null) {
+                outboxService.registrarEnvio(email.getId());
+            } else {
+                registrarFallo(email, error);
+            }
+        });
+    }
+
+    private void registrarFallo(EmailOutboxEntity email, Exception error) {
+        log.warn("⚠️ No se pudo enviar el correo #{}: {}", email.getId(), error.getMessage());
+        outboxService.registrarFallo(email.getId(), error.getMessage());
+    }
+
+    @PreDestroy
+    public void cerrar() {
+        ejecutor.shutdown();
+    }
+}
@@ -0,0 +1,137 @@
+package com.example.java.proyect.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.EnumSet;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.java.proyect.EmailOutboxRepository;
+import com.example.java.proyect.entities.EmailOutboxEntity;
+import com.example.java.proyect.entities.EmailOutboxEntity.Estado;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * 📮 Bandeja de salida transaccional de emails.
+ *
+ * - encolar() se llama dentro de la transacción del cambio del ticket: si el cambio
+ *   se revierte, el email tampoco se envía; si se confirma, el email queda guardado
+ *   aunque la aplicación se reinicie.
+ * - EmailOutboxDispatcher reclama lotes, los envía y registra el resultado acá.
+ */
+@Service
+public class EmailOutboxService implements MeterBinder {
+
+    private final EmailOutboxRepository outboxRepository;
+
+    // Tiempo que un lote queda reservado para un dispatcher antes de poder reclamarse de nuevo
+    @Value("${email.outbox.reserva-ms:120000}")
+    private long reservaMs;
+
+    // Espera antes del primer reintento; se duplica en cada fallo
+    @Value("${email.outbox.reintento-base-ms:30000}")
+    private long reintentoBaseMs;
+
+    // Espera máxima entre reintentos
+    @Value("${email.outbox.reintento-max-ms:3600000}")
+    private long reintentoMaxMs;
+
+    // Intentos antes de marcar el email como FALLIDO
+    @Value("${email.outbox.max-intentos:8}")
+    private int maxIntentos;
+
+    public EmailOutboxService(EmailOutboxRepository outboxRepository) {
+        this.outboxRepository = outboxRepository;
+    }
+
+    /**
+     * ✉️ Guarda un email para enviarlo en segundo plano.
+     */
+    @Transactional
+    public EmailOutboxEntity encolar(String destinatario, String asunto, String cuerpoHtml) {
+        EmailOutboxEntity email = new EmailOutboxEntity();
+        email.setDestinatario(destinatario);
+        email.setAsunto(asunto);
+        email.setCuerpoHtml(cuerpoHtml);
+        return outboxRepository.save(email);
+    }
+
+    /**
+     * 📥 Reserva hasta "cantidad" emails listos para enviar y los marca como ENVIANDO.
+     * La reserva vence después de email.outbox.reserva-ms, por si el proceso se cae a mitad de envío.
+     */
+    @Transactional
+    public List<EmailOutboxEntity> reclamarLote(int cantidad) {
+        Instant ahora = Instant.now();
+        List<EmailOutboxEntity> lote = outboxRepository.findByEstadoInAndProximoIntentoLessThanEqualOrderByIdAsc(
+                EnumSet.of(Estado.PENDIENTE, Estado.ENVIANDO), ahora, Limit.of(cantidad));
+
+        for (EmailOutboxEntity email : lote) {
+            email.setEstado(Estado.ENVIANDO);
+            email.setProximoIntento(ahora.plusMillis(reservaMs));
+        }
+        return lote;
+    }
+
+    /**
+     * ✅ Marca un email como enviado.
+     */
+    @Transactional
+    public void registrarEnvio(Long id) {
+        outboxRepository.findById(id).ifPresent(email -> {
+            email.setEstado(Estado.ENVIADO);
+            email.setIntentos(email.getIntentos() + 1);
+            email.setEnviadoEn(Instant.now());
+            email.setUltimoError(null);
+        });
+    }
+
+    /**
+     * ⚠️ Registra un fallo de envío y programa el próximo reintento con espera exponencial.
+     * Al llegar a email.outbox.max-intentos el email queda como FALLIDO.
+     */
+    @Transactional
+    public void registrarFallo(Long id, String error) {
+        outboxRepository.findById(id).ifPresent(email -> {
+            int intentos = email.getIntentos() + 1;
+            email.setIntentos(intentos);
+            email.setUltimoError(error != null && error.length() > 1000 ? error.substring(0, 1000) : error);
+
+            if (intentos >= maxIntentos) {
+                email.setEstado(Estado.FALLIDO);
+            } else {
+                email.setEstado(Estado.PENDIENTE);
+                email.setProximoIntento(Instant.now().plus(esperaReintento(intentos)));
+            }
+        });
+    }
+
+    /**
+     * 📈 Profundidad de la cola: emails pendientes o en envío, y emails que agotaron los reintentos.
+     * Se consulta a la base solo cuando Prometheus hace el scrape.
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("email.outbox.pendientes", outboxRepository,
+                        repo -> repo.countByEstadoIn(EnumSet.of(Estado.PENDIENTE, Estado.ENVIANDO)))
+                .description("Emails esperando ser enviados")
+                .register(registry);
+        Gauge.builder("email.outbox.fallidos", outboxRepository,
+                        repo -> repo.countByEstadoIn(EnumSet.of(Estado.FALLIDO)))
+                .description("Emails que agotaron los reintentos")
+                .register(registry);
+    }
+
+    // 30s, 1m, 2m, 4m... hasta el máximo configurado
+    private Duration esperaReintento(int intentos) {
+        long espera = reintentoBaseMs << Math.min(intentos - 1, 20);
+        return Duration.ofMillis(Math.min(espera, reintentoMaxMs));
+    }
+}
@@ -1,12 +1,27 @@
 package com.example.java.proyect.service;
 
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.mail.javamail.MimeMessageHelper;
 import org.springframework.stereotype.Service;
 
 import com.example.java.proyect.models.requests.TicketModel;
 
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
 import jakarta.mail.MessagingException;
 import jakarta.mail.internet.MimeMessage;
 
@@ -40,11 +55,13 @@ import jakarta.mail.internet.MimeMessage;
  * Envía correos en formato HTML para mejor diseño y experiencia.
  */
 @Service
-public class EmailService {
+public class EmailService implements MeterBinder {
 
     @Autowired
     private JavaMailSender mailSender;
 
+    private final EstadisticasEnvio estadisticas = new EstadisticasEnvio();
+
     /**
      * Envía un correo simple de texto plano.
      * @param to destinatario
@@ -64,6 +81,26 @@ public class EmailService {
      * @throws MessagingException si hay error en el envío
      */
     public void enviarEmailHtml(String to, String subject, String htmlBody) throws MessagingException {
+        MimeMessage mensaje = crearMensajeHtml(to, subject, htmlBody);
+        Exception error = enviarLote(List.of(mensaje)).get(mensaje);
+
+        if (error instanceof MailException mailError) {
+            throw mailError;
+        }
+        if (error != null) {
+            throw new MailSendException(error.getMessage(), error);
+        }
+    }
+
+    /**
+     * Arma un correo HTML listo para enviar (sin enviarlo).
+     * @param to destinatario
+     * @param subject asunto
+     * @param htmlBody cuerpo HTML
+     * @return mensaje MIME
+     * @throws MessagingException si algún dato del mensaje es inválido
+     */
+    public MimeMessage crearMensajeHtml(String to, String subject, String htmlBody) throws MessagingException {
         MimeMessage mensaje = mailSender.createMimeMessage();
         MimeMessageHelper helper = new MimeMessageHelper(mensaje, true, "UTF-8");
 
@@ -72,68 +109,140 @@ public class EmailService {
         helper.setText(htmlBody, true);  // true = es HTML
         helper.setFrom("techresolution24@gmail.com");
 
-        mailSender.send(mensaje);
+        return mensaje;
     }
 
     /**
-     * Construye el cuerpo del email en HTML con el diseño profesional en negro y azul.
-     * @param ticket objeto TicketModel con los datos actualizados
-     * @return String HTML listo para enviar
+     * Envía varios correos usando una sola conexión SMTP (un solo handshake TCP + TLS + AUTH).
+     * Un mensaje rechazado no corta el envío del resto.
+     * @param mensajes correos a enviar
+     * @return los mensajes que fallaron con su error (vacío si salieron todos)
      */
-    public String construirCuerpoEmail(TicketModel ticket) {
-    String colorEstado;
-    String mensajeEstado;
-
-    switch (ticket.getEstado().toLowerCase()) {
-        case "pendiente":
-            colorEstado = "#daba00ff";  // amarillo
-            mensajeEstado = "Tu equipo está en espera de revisión.";
-            break;
-        case "en reparación":
-            colorEstado = "#eb6e25ff";  // naranja
-            mensajeEstado = "Tu equipo está siendo reparado.";
-            break;
-        case "listo":
-            colorEstado = "#10B981";  // verde
-            mensajeEstado = "✅ ¡Tu equipo ya está listo para ser retirado!";
-            break;
-        default:
-            colorEstado = "#374151";  // gris oscuro
-            mensajeEstado = "El estado actual de tu ticket es: " + ticket.getEstado();
-            break;
+    public Map<MimeMessage, Exception> enviarLote(List<MimeMessage> mensajes) {
+        if (mensajes.isEmpty()) {
+            return Map.of();
+        }
+
+        Map<MimeMessage, Exception> fallidos = new HashMap<>();
+        long inicio = System.nanoTime();
+        try {
+            mailSender.send(mensajes.toArray(MimeMessage[]::new));
+        } catch (MailSendException e) {
+            // Algunos mensajes fallaron: Spring informa cuáles
+            e.getFailedMessages().forEach((mensaje, error) -> {
+                if (mensaje instanceof MimeMessage mime) {
+                    fallidos.put(mime, error);
+                }
+            });
+            if (fallidos.isEmpty()) {
+                mensajes.forEach(mensaje -> fallidos.put(mensaje, e)); // No se pudo ni conectar
+            }
+        } catch (MailException e) {
+            // Error de conexión o autenticación: falló todo el lote
+            mensajes.forEach(mensaje -> fallidos.put(mensaje, e));
+        }
+
+        estadisticas.registrar(mensajes.size() - fallidos.size(), fallidos.size(), System.nanoTime() - inicio);
+        return fallidos;
+    }
+
+    /**
+     * Estadísticas acumuladas de envío (lotes, mensajes y tiempo).
+     */
+    public EstadisticasEnvio getEstadisticas() {
+        return estadisticas;
+    }
+
+    /**
+     * 📈 Publica las estadísticas de envío en Micrometer (Spring Boot llama a este
+     * método al arrancar porque el servicio es un MeterBinder).
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionTimer.builder("email.envio", estadisticas,
+                        EstadisticasEnvio::getLotes, EstadisticasEnvio::getTiempoEnvioNanos, TimeUnit.NANOSECONDS)
+                .description("Tiempo de envío por lote (llamadas a enviarLote)")
+                .register(registry);
+        FunctionCounter.builder("email.mensajes", estadisticas, EstadisticasEnvio::getMensajesEnviados)
+                .tag("resultado", "enviado")
+                .register(registry);
+        FunctionCounter.builder("email.mensajes", estadisticas, EstadisticasEnvio::getMensajesFallidos)
+                .tag("resultado", "fallido")
+                .register(registry);
+        // Promedio desde el arranque; para una ventana:
+        // sum(rate(email_mensajes_total[5m])) / rate(email_envio_count[5m])
+        Gauge.builder("email.mensajes.por.lote", estadisticas, EstadisticasEnvio::getMensajesPorLote)
+                .description("Mensajes por llamada a enviarLote (promedio desde el arranque)")
+                .register(registry);
     }
 
-    String solucion = ticket.getSolucion() != null ? ticket.getSolucion() : "Aún no disponible";
+    /**
+     * 📈 Contadores de envío de emails, por llamada a enviarLote (un lote).
+     */
+    public static class EstadisticasEnvio {
+
+        private final LongAdder lotes = new LongAdder();
+        private final LongAdder mensajesEnviados = new LongAdder();
+        private final LongAdder mensajesFallidos = new LongAdder();
+        private final LongAdder tiempoEnvioNanos = new LongAdder();
+
+        void registrar(int enviados, int fallidos, long nanos) {
+            lotes.increment();
+            mensajesEnviados.add(enviados);
+            mensajesFallidos.add(fallidos);
+            tiempoEnvioNanos.add(nanos);
+        }
+
+        // Llamadas a enviarLote (cada una abre su conexión SMTP; más si el servidor la corta)
+        public long getLotes() {
+            return lotes.sum();
+        }
 
-    // ✅ Mostrar precio solo si el estado es 'listo'
-    String precioHtml = "";
-    if ("listo".equalsIgnoreCase(ticket.getEstado()) && ticket.getPrecio() != null) {
-        precioHtml = "<p><strong>Precio final:</strong> " + String.format("$ %.2f", ticket.getPrecio()) + "</p>";
+        public long getMensajesEnviados() {
+            return mensajesEnviados.sum();
+        }
+
+        public long getMensajesFallidos() {
+            return mensajesFallidos.sum();
+        }
+
+        // Tiempo total dentro del servidor SMTP, sumando todos los lotes
+        public long getTiempoEnvioNanos() {
+            return tiempoEnvioNanos.sum();
+        }
+
+        // Promedio de mensajes por lote
+        public double getMensajesPorLote() {
+            long total = getLotes();
+            return total == 0 ? 0 : (double) (getMensajesEnviados() + getMensajesFallidos()) / total;
+        }
     }
 
-    String prioridad = ticket.getPrioridad() != null ? ticket.getPrioridad() : "No asignada";
+    // ------------------- Plantilla del email de actualización -------------------
 
-    return "<!DOCTYPE html>" +
+    // Layout del email: se analiza una sola vez al cargar la clase
+    private static final PlantillaHtml PLANTILLA_ACTUALIZACION = PlantillaHtml.compilar(
+            "<!DOCTYPE html>" +
             "<html lang='es'>" +
             "<head><meta charset='UTF-8'><title>Actualización de Ticket</title></head>" +
             "<body style='font-family: Arial, sans-serif; background-color: #0F172A; color: #E0E7FF; margin: 0; padding: 20px;'>" +
 
             "<div style='max-width: 600px; margin: auto; background: #1E293B; border-radius: 10px; padding: 20px;'>" +
 
-            "<h2 style='color: #3B82F6;'>🔔 Actualización de tu ticket #" + ticket.getId() + "</h2>" +
+            "<h2 style='color: #3B82F6;'>🔔 Actualización de tu ticket #{{{id}}}</h2>" +
 
             "<p>Hola,</p>" +
 
-            "<p style='font-size: 16px;'>" + mensajeEstado + "</p>" +
+            "<p style='font-size: 16px;'>{{{mensajeEstado}}}</p>" +
 
             "<div style='background-color: #111827; padding: 15px; border-radius: 8px; margin-top: 20px;'>" +
             "<p><strong>Estado actual:</strong> " +
-            "<span style='color: " + colorEstado + "; font-weight: bold; text-transform: capitalize;'>" + ticket.getEstado() + "</span></p>" +
+            "<span style='color: {{{colorEstado}}}; font-weight: bold; text-transform: capitalize;'>{{estado}}</span></p>" +
 
-            "<p><strong>Solución:</strong> " + solucion + "</p>" +
+            "<p><strong>Solución:</strong> {{solucion}}</p>" +
 
-            // ✅ Solo agregar precio si es 'listo'
-            precioHtml +
+            // ✅ Solo se completa si el estado es 'listo'
+            "{{{precio}}}" +
 
             "</div>" +
 
@@ -147,6 +256,50 @@ public class EmailService {
 
             "</div>" +
             "</body>" +
-            "</html>";
+            "</html>",
+            "id", "mensajeEstado", "colorEstado", "estado", "solucion", "precio");
+
+    // Color y mensaje de cada estado conocido: {color, mensaje}
+    private static final Map<String, String[]> VISTA_POR_ESTADO = Map.of(
+            "pendiente", new String[] { "#daba00ff", "Tu equipo está en espera de revisión." },            // amarillo
+            "en reparación", new String[] { "#eb6e25ff", "Tu equipo está siendo reparado." },              // naranja
+            "listo", new String[] { "#10B981", "✅ ¡Tu equipo ya está listo para ser retirado!" });        // verde
+
+    private static final String COLOR_ESTADO_DESCONOCIDO = "#374151"; // gris oscuro
+
+    /**
+     * Construye el cuerpo del email en HTML con el diseño profesional en negro y azul.
+     * Usa la plantilla precompilada; la solución y el estado se escapan como HTML.
+     * @param ticket objeto TicketModel con los datos actualizados
+     * @return String HTML listo para enviar
+     */
+    public String construirCuerpoEmail(TicketModel ticket) {
+        String estado = ticket.getEstado();
+        String[] vista = estado != null ? VISTA_POR_ESTADO.get(estado.toLowerCase()) : null;
+
+        String colorEstado;
+        String mensajeEstado;
+        if (vista != null) {
+            colorEstado = vista[0];
+            mensajeEstado = vista[1];
+        } else {
+            StringBuilder mensaje = new StringBuilder("El estado actual de tu ticket es: ");
+            PlantillaHtml.escaparHtml(String.valueOf(estado), mensaje);
+            colorEstado = COLOR_ESTADO_DESCONOCIDO;
+            mensajeEstado = mensaje.toString();
+        }
+
+        String solucion = ticket.getSolucion() != null ? ticket.getSolucion() : "Aún no disponible";
+
+        // ✅ Mostrar precio solo si el estado es 'listo'
+        String precioHtml = null;
+        if ("listo".equalsIgnoreCase(estado) && ticket.getPrecio() != null) {
+            precioHtml = "<p><strong>Precio final:</strong> $ "
+                    + BigDecimal.valueOf(ticket.getPrecio()).setScale(2, RoundingMode.HALF_UP).toPlainString()
+                    + "</p>";
+        }
+
+        return PLANTILLA_ACTUALIZACION.render(
+                String.valueOf(ticket.getId()), mensajeEstado, colorEstado, estado, solucion, precioHtml);
+    }
 }
-}
\ No newline at end of file
@@ -0,0 +1,14 @@
+package com.example.java.proyect.service;
+
+/**
+ * ⚠️ El pool de hashing de contraseñas está lleno (ráfaga de logins/registros).
+ * Los controladores la traducen a 429 Too Many Requests.
+ */
+public class HashingSaturadoException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public HashingSaturadoException() {
+        super("Demasiados inicios de sesión en curso, reintentá en unos segundos");
+    }
+}
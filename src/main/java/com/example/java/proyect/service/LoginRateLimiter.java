@@ -0,0 +1,99 @@
+package com.example.java.proyect.service;
+
+import java.time.Duration;
+import java.util.Locale;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * 🚧 Límite de intentos de login por IP y por email (token bucket).
+ *
+ * Cada IP y cada email tienen un "balde" con `capacidad` fichas que se rellena a razón de
+ * `por-minuto` fichas por minuto; cada intento gasta una ficha de cada balde. Así se frena a
+ * quien prueba muchas contraseñas para una cuenta (por email) y a quien prueba muchas cuentas
+ * desde una máquina (por IP), antes de gastar CPU en BCrypt.
+ *
+ * Los baldes viven en memoria (Caffeine, acotado) y se descartan tras un rato sin uso.
+ */
+@Component
+public class LoginRateLimiter {
+
+    private final Cache<String, Balde> baldesPorIp;
+    private final Cache<String, Balde> baldesPorEmail;
+    private final int capacidadIp;
+    private final double recargaIpPorNano;
+    private final int capacidadEmail;
+    private final double recargaEmailPorNano;
+    private final MeterRegistry meterRegistry;
+
+    public LoginRateLimiter(@Value("${seguridad.login.por-ip.capacidad:20}") int capacidadIp,
+                            @Value("${seguridad.login.por-ip.por-minuto:20}") int porMinutoIp,
+                            @Value("${seguridad.login.por-email.capacidad:5}") int capacidadEmail,
+                            @Value("${seguridad.login.por-email.por-minuto:5}") int porMinutoEmail,
+                            MeterRegistry meterRegistry) {
+        this.capacidadIp = capacidadIp;
+        this.recargaIpPorNano = porMinutoIp / (double) Duration.ofMinutes(1).toNanos();
+        this.capacidadEmail = capacidadEmail;
+        this.recargaEmailPorNano = porMinutoEmail / (double) Duration.ofMinutes(1).toNanos();
+        this.meterRegistry = meterRegistry;
+        // Un balde sin uso por 10 minutos ya está lleno de nuevo: se puede descartar
+        this.baldesPorIp = Caffeine.newBuilder().maximumSize(100_000).expireAfterAccess(Duration.ofMinutes(10)).build();
+        this.baldesPorEmail = Caffeine.newBuilder().maximumSize(100_000).expireAfterAccess(Duration.ofMinutes(10)).build();
+    }
+
+    /**
+     * ✅ true si el intento de login puede seguir; false si la IP o el email agotaron sus intentos.
+     */
+    public boolean permitir(String ip, String email) {
+        Balde porIp = baldesPorIp.get(ip, k -> new Balde(capacidadIp, recargaIpPorNano));
+        if (!porIp.consumir()) {
+            meterRegistry.counter("auth.login.limitados", "por", "ip").increment();
+            return false;
+        }
+        if (email == null) {
+            return true;
+        }
+        Balde porEmail = baldesPorEmail.get(email.trim().toLowerCase(Locale.ROOT),
+                k -> new Balde(capacidadEmail, recargaEmailPorNano));
+        if (!porEmail.consumir()) {
+            meterRegistry.counter("auth.login.limitados", "por", "email").increment();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * 🪣 Balde de fichas: se recarga en forma continua según el tiempo transcurrido.
+     */
+    static final class Balde {
+
+        private final int capacidad;
+        private final double recargaPorNano;
+        private double fichas;
+        private long ultimaRecarga;
+
+        Balde(int capacidad, double recargaPorNano) {
+            this.capacidad = capacidad;
+            this.recargaPorNano = recargaPorNano;
+            this.fichas = capacidad;
+            this.ultimaRecarga = System.nanoTime();
+        }
+
+        synchronized boolean consumir() {
+            long ahora = System.nanoTime();
+            fichas = Math.min(capacidad, fichas + (ahora - ultimaRecarga) * recargaPorNano);
+            ultimaRecarga = ahora;
+            if (fichas < 1) {
+                return false;
+            }
+            fichas -= 1;
+            return true;
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.java.proyect.service;
+
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * 🔐 BCrypt en un pool propio y acotado.
+ *
+ * Cada verificación de contraseña ocupa un núcleo entero durante decenas de milisegundos.
+ * Si se hiciera en el hilo de la petición, una ráfaga de logins (o un ataque de credential
+ * stuffing) ocuparía todos los núcleos y dejaría sin CPU a los endpoints de tickets.
+ * Acá el hashing corre en a lo sumo `seguridad.hash.hilos` hilos; hasta `seguridad.hash.cola`
+ * pedidos esperan turno y el resto se rechaza con HashingSaturadoException (→ 429).
+ *
+ * También re-cifra sin bloquear los hashes con un factor de trabajo menor al configurado
+ * (seguridad.bcrypt.fuerza), así se puede subir la fuerza sin invalidar contraseñas existentes.
+ */
+@Service
+public class PasswordHashingService {
+
+    private final BCryptPasswordEncoder encoder;
+    private final ThreadPoolExecutor executor;
+    private final Counter rechazos;
+
+    public PasswordHashingService(BCryptPasswordEncoder encoder,
+                                  @Value("${seguridad.hash.hilos:0}") int hilos,
+                                  @Value("${seguridad.hash.cola:64}") int cola,
+                                  MeterRegistry meterRegistry) {
+        this.encoder = encoder;
+        // 0 = un hilo por núcleo
+        int tamanio = hilos > 0 ? hilos : Runtime.getRuntime().availableProcessors();
+        AtomicInteger numero = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(tamanio, tamanio, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(cola),
+                tarea -> {
+                    Thread hilo = new Thread(tarea, "bcrypt-" + numero.incrementAndGet());
+                    hilo.setDaemon(true);
+                    return hilo;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        this.rechazos = meterRegistry.counter("auth.hash.rechazos");
+        // 📈 executor_active_threads, executor_queued_tasks, executor_seconds (tiempo en cola + ejecución)
+        ExecutorServiceMetrics.monitor(meterRegistry, executor, "bcrypt");
+    }
+
+    /**
+     * ✅ Compara una contraseña con su hash (bloquea hasta que haya un hilo libre).
+     * @throws HashingSaturadoException si el pool y su cola están llenos
+     */
+    public boolean verificar(String contrasenia, String hash) {
+        return esperar(enviar(() -> encoder.matches(contrasenia, hash)));
+    }
+
+    /**
+     * 🔒 Cifra una contraseña nueva (registro) con la fuerza configurada.
+     * @throws HashingSaturadoException si el pool y su cola están llenos
+     */
+    public String cifrar(String contrasenia) {
+        return esperar(enviar(() -> encoder.encode(contrasenia)));
+    }
+
+    /**
+     * 🔁 Si el hash fue generado con una fuerza menor a la actual, lo re-cifra en el pool (sin
+     * bloquear) y devuelve el hash nuevo. Vacío si no hace falta o si el pool está ocupado: se
+     * reintenta en el próximo login. Guardarlo es cosa de quien llama (ver UserService).
+     */
+    public CompletableFuture<Optional<String>> recifrarSiCorresponde(String contrasenia, String hash) {
+        if (!encoder.upgradeEncoding(hash)) {
+            return CompletableFuture.completedFuture(Optional.empty());
+        }
+        try {
+            return CompletableFuture.supplyAsync(() -> Optional.of(encoder.encode(contrasenia)), executor);
+        } catch (RejectedExecutionException e) {
+            // Sin lugar: el login ya se resolvió, la actualización puede esperar
+            return CompletableFuture.completedFuture(Optional.empty());
+        }
+    }
+
+    private <T> Future<T> enviar(Callable<T> tarea) {
+        try {
+            return executor.submit(tarea);
+        } catch (RejectedExecutionException e) {
+            rechazos.increment();
+            throw new HashingSaturadoException();
+        }
+    }
+
+    private static <T> T esperar(Future<T> resultado) {
+        try {
+            return resultado.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrumpido esperando el hash de la contraseña", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Error al procesar la contraseña", e.getCause());
+        }
+    }
+
+    @PreDestroy
+    public void cerrar() {
+        executor.shutdown();
+    }
+}
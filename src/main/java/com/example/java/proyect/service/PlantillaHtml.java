@@ -0,0 +1,143 @@
+package com.example.java.proyect.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 🧩 Plantilla HTML precompilada.
+ *
+ * El layout se analiza una sola vez (al crear la plantilla) y queda partido en
+ * segmentos de texto fijo y "huecos" ({{nombre}}). Al renderizar solo se copian los
+ * segmentos y se escriben los valores en el StringBuilder que recibe, sin concatenar
+ * ni volver a recorrer el layout.
+ *
+ * - {{nombre}}   → el valor se escapa como HTML (para datos que vienen del usuario).
+ * - {{{nombre}}} → el valor se copia tal cual (para fragmentos HTML armados por nosotros).
+ */
+public final class PlantillaHtml {
+
+    // Texto fijo: siempre hay un segmento más que huecos
+    private final String[] segmentos;
+
+    // Para cada hueco, la posición del valor en el array que recibe render()
+    private final int[] indices;
+
+    // Para cada hueco, si hay que escapar el valor
+    private final boolean[] escapar;
+
+    // Largo de todo el texto fijo junto (para dimensionar el buffer de render)
+    private final int largoFijo;
+
+    private PlantillaHtml(String[] segmentos, int[] indices, boolean[] escapar) {
+        this.segmentos = segmentos;
+        this.indices = indices;
+        this.escapar = escapar;
+        this.largoFijo = Arrays.stream(segmentos).mapToInt(String::length).sum();
+    }
+
+    /**
+     * Analiza el layout y arma la plantilla.
+     * @param layout HTML con huecos {{nombre}} o {{{nombre}}}
+     * @param nombres nombres de los huecos, en el orden en que se pasarán los valores a render()
+     * @return plantilla lista para renderizar
+     * @throws IllegalArgumentException si el layout usa un hueco que no está en nombres
+     */
+    public static PlantillaHtml compilar(String layout, String... nombres) {
+        List<String> segmentos = new ArrayList<>();
+        List<Integer> indices = new ArrayList<>();
+        List<Boolean> escapar = new ArrayList<>();
+        List<String> declarados = Arrays.asList(nombres);
+
+        int desde = 0;
+        int inicio;
+        while ((inicio = layout.indexOf("{{", desde)) >= 0) {
+            boolean crudo = layout.startsWith("{{{", inicio);
+            String cierre = crudo ? "}}}" : "}}";
+            int apertura = inicio + (crudo ? 3 : 2);
+            int fin = layout.indexOf(cierre, apertura);
+            if (fin < 0) {
+                throw new IllegalArgumentException("Hueco sin cerrar en la posición " + inicio);
+            }
+
+            String nombre = layout.substring(apertura, fin).trim();
+            int indice = declarados.indexOf(nombre);
+            if (indice < 0) {
+                throw new IllegalArgumentException("Hueco no declarado en la plantilla: " + nombre);
+            }
+
+            segmentos.add(layout.substring(desde, inicio));
+            indices.add(indice);
+            escapar.add(!crudo);
+            desde = fin + cierre.length();
+        }
+        segmentos.add(layout.substring(desde));
+
+        boolean[] escaparArray = new boolean[escapar.size()];
+        for (int i = 0; i < escaparArray.length; i++) {
+            escaparArray[i] = escapar.get(i);
+        }
+        return new PlantillaHtml(
+                segmentos.toArray(String[]::new),
+                indices.stream().mapToInt(Integer::intValue).toArray(),
+                escaparArray);
+    }
+
+    /**
+     * Arma el texto en un StringBuilder nuevo, ya del tamaño del resultado: texto fijo más
+     * los valores (con un margen por lo que agrega el escape HTML), así no crece mientras se escribe.
+     * Sin buffers por hilo: con hilos virtuales cada envío corre en un hilo nuevo y no se reutilizan.
+     * @param valores valores de los huecos, en el orden declarado al compilar (null = vacío)
+     * @return el HTML completo
+     */
+    public String render(String... valores) {
+        int largo = largoFijo;
+        for (int indice : indices) {
+            String valor = valores[indice];
+            if (valor != null) {
+                largo += valor.length();
+            }
+        }
+        StringBuilder destino = new StringBuilder(largo + largo / 16);
+        render(destino, valores);
+        return destino.toString();
+    }
+
+    /**
+     * Escribe la plantilla con los valores indicados al final de destino.
+     * @param destino buffer donde se escribe (puede reutilizarse entre llamadas)
+     * @param valores valores de los huecos, en el orden declarado al compilar (null = vacío)
+     */
+    public void render(StringBuilder destino, String... valores) {
+        for (int i = 0; i < indices.length; i++) {
+            destino.append(segmentos[i]);
+            String valor = valores[indices[i]];
+            if (valor == null) {
+                continue;
+            }
+            if (escapar[i]) {
+                escaparHtml(valor, destino);
+            } else {
+                destino.append(valor);
+            }
+        }
+        destino.append(segmentos[indices.length]);
+    }
+
+    /**
+     * Escapa los caracteres especiales de HTML directamente en el buffer.
+     */
+    public static void escaparHtml(String texto, StringBuilder destino) {
+        for (int i = 0; i < texto.length(); i++) {
+            char c = texto.charAt(i);
+            switch (c) {
+                case '<' -> destino.append("&lt;");
+                case '>' -> destino.append("&gt;");
+                case '&' -> destino.append("&amp;");
+                case '"' -> destino.append("&quot;");
+                case '\'' -> destino.append("&#39;");
+                default -> destino.append(c);
+            }
+        }
+    }
+}
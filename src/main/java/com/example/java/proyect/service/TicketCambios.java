@@ -0,0 +1,97 @@
+package com.example.java.proyect.service;
+
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * 🏷️ Contador de cambios de la tabla de tickets, para los ETag de los listados y del dashboard.
+ *
+ * - Sube con cada TicketEvento (alta, cambio, baja, importación), con las invalidaciones que
+ *   llegan de otras réplicas y cuando la reconciliación corrige las estadísticas.
+ * - Los paneles que consultan seguido mandan If-None-Match: si el contador no se movió se
+ *   responde 304 sin consultar la base ni serializar nada.
+ * - Sube al final de la transacción (después de que se vacían las cachés): quien lea el número
+ *   nuevo ya ve los datos nuevos. Como mucho sobra algún 200 de más, nunca un 304 viejo.
+ *
+ * ETag compartido entre réplicas: cuando una ronda de InvalidacionEntreReplicas termina sin
+ * novedades (nada local sin publicar, ninguna fila reciente sin asentar) el ETag pasa a ser el id
+ * de la última fila de tickets de cache_invalidacion. Los ids los da la base, así que dos réplicas
+ * al día (o una recién reiniciada) dan el mismo ETag y el 304 sirve aunque el balanceador cambie
+ * de réplica. Mientras haya cambios sin confirmar, el ETag lleva el id de arranque y el contador
+ * local: solo coincide en esta réplica.
+ */
+@Component
+public class TicketCambios {
+
+    private static final ZoneId ZONA_ARGENTINA = ZoneId.of("America/Argentina/Buenos_Aires");
+
+    // Contador local en el momento en que "fila" cubría todo lo que esta réplica sabía
+    private record Confirmado(long fila, long version) { }
+
+    private final String arranque = Long.toHexString(ThreadLocalRandom.current().nextLong());
+    private final AtomicLong version = new AtomicLong();
+    private volatile Confirmado confirmado = new Confirmado(0, -1); // Nada confirmado todavía
+    private volatile long filaMinima;
+
+    /**
+     * 📣 Cambio de tickets terminado (confirmado o no: si se revirtió solo cuesta un 200 de más).
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMPLETION, fallbackExecution = true)
+    public void alCambiar(TicketEvento evento) {
+        registrarCambio();
+    }
+
+    /**
+     * 🔄 Cambio que no pasa por un TicketEvento (otra réplica, cambio guardado sin TicketService).
+     */
+    public void registrarCambio() {
+        version.incrementAndGet();
+    }
+
+    /**
+     * 🩹 Cambio que solo existe en esta réplica (reconciliación de estadísticas): no queda en
+     * cache_invalidacion, así que el ETag no vuelve a ser compartido hasta la próxima fila nueva.
+     */
+    public void registrarCorreccion() {
+        filaMinima = confirmado.fila() + 1;
+        version.incrementAndGet();
+    }
+
+    /**
+     * ✅ Todo lo que esta réplica sabía cuando "version" valía versionAlEmpezar ya está en
+     * cache_invalidacion hasta la fila "fila" (lo llama InvalidacionEntreReplicas).
+     */
+    public void confirmar(long fila, long versionAlEmpezar) {
+        if (fila >= filaMinima) {
+            confirmado = new Confirmado(fila, versionAlEmpezar);
+        }
+    }
+
+    // ETag débil: el JSON puede variar en detalles (compresión, orden de claves) sin que cambien los datos
+    public String etag() {
+        return "W/\"" + valor() + "\"";
+    }
+
+    // Para /tickets/por-mes: la ventana de 12 meses también cambia al empezar un mes nuevo
+    public String etagMensual() {
+        return "W/\"" + valor() + "-" + YearMonth.now(ZONA_ARGENTINA) + "\"";
+    }
+
+    // "fila" si no hubo cambios desde la confirmación; si no, "fila-arranque-contador"
+    private String valor() {
+        Confirmado actual = confirmado;
+        long ahora = version.get();
+        return ahora == actual.version() ? Long.toString(actual.fila())
+                : actual.fila() + "-" + arranque + "-" + ahora;
+    }
+
+    public long version() {
+        return version.get();
+    }
+}
@@ -0,0 +1,185 @@
+package com.example.java.proyect.service;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.example.java.proyect.models.requests.TicketModel;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * 📡 Reparte los cambios de tickets a los paneles conectados por SSE (GET /tickets/eventos).
+ *
+ * - TicketService publica un TicketEvento; acá llega después del commit (si se revierte, no se avisa).
+ * - Cada evento se serializa una sola vez y se deja en la cola de cada suscriptor que puede verlo:
+ *   los admins reciben todo, los clientes solo sus tickets.
+ * - Cada suscriptor tiene una cola acotada que vacía su propio hilo virtual. Publicar nunca
+ *   espera a la red: si la cola de alguien está llena (cliente lento o colgado) se lo desconecta
+ *   y el navegador se reconecta solo (EventSource).
+ * - Mientras espera eventos, una conexión no ocupa hilos de Tomcat ni conexiones a la base.
+ */
+@Component
+public class TicketEventBus {
+
+    // Marca para que el hilo del suscriptor cierre la conexión
+    private static final SseEmitter.SseEventBuilder CERRAR = SseEmitter.event();
+
+    private final ObjectMapper objectMapper;
+    private final Set<Suscriptor> suscriptores = ConcurrentHashMap.newKeySet();
+    private final AtomicLong secuencia = new AtomicLong(); // id de cada evento (campo "id:" del SSE)
+    private final Counter descartados;
+
+    // Eventos pendientes por suscriptor antes de considerarlo lento y desconectarlo
+    @Value("${tickets.eventos.buffer:256}")
+    private int buffer;
+
+    // Vida máxima de una conexión (ms); después el navegador se reconecta
+    @Value("${tickets.eventos.timeout-ms:1800000}")
+    private long timeoutMs;
+
+    public TicketEventBus(ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.objectMapper = objectMapper;
+        Gauge.builder("tickets.eventos.suscriptores", suscriptores, Set::size)
+                .description("Conexiones SSE abiertas en /tickets/eventos")
+                .register(meterRegistry);
+        this.descartados = Counter.builder("tickets.eventos.descartados")
+                .description("Suscriptores desconectados por no leer los eventos a tiempo")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 🔌 Abre una conexión SSE.
+     * @param email sujeto del JWT
+     * @param admin true = recibe los eventos de todos los tickets
+     */
+    public SseEmitter suscribir(String email, boolean admin) {
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        Suscriptor suscriptor = new Suscriptor(emitter, admin ? null : TicketModel.normalizarEmail(email),
+                new ArrayBlockingQueue<>(buffer));
+
+        emitter.onCompletion(() -> cerrar(suscriptor));
+        emitter.onTimeout(() -> cerrar(suscriptor));
+        emitter.onError(e -> cerrar(suscriptor));
+
+        suscriptores.add(suscriptor);
+        Thread.ofVirtual().name("sse-tickets").start(() -> enviar(suscriptor));
+
+        // Primer mensaje: confirma la conexión (y manda los encabezados enseguida)
+        suscriptor.cola().offer(SseEmitter.event().comment("conectado"));
+        return emitter;
+    }
+
+    /**
+     * 📣 Reparte un cambio a los suscriptores que pueden verlo.
+     * Sin transacción (alta o baja sueltas) se reparte en el momento.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void publicar(TicketEvento evento) {
+        if (suscriptores.isEmpty()) {
+            return;
+        }
+
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(evento);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("No se pudo serializar el evento del ticket " + evento.id(), e);
+        }
+
+        String id = Long.toString(secuencia.incrementAndGet());
+        for (Suscriptor suscriptor : suscriptores) {
+            if (suscriptor.puedeVer(evento)) {
+                entregar(suscriptor, SseEmitter.event().id(id).name(evento.tipo()).data(json, MediaType.APPLICATION_JSON));
+            }
+        }
+    }
+
+    // 💓 Comentario periódico: mantiene viva la conexión en proxies y detecta clientes que se fueron
+    @Scheduled(fixedDelayString = "${tickets.eventos.latido-ms:25000}")
+    public void latido() {
+        for (Suscriptor suscriptor : suscriptores) {
+            entregar(suscriptor, SseEmitter.event().comment("latido"));
+        }
+    }
+
+    public int cantidadSuscriptores() {
+        return suscriptores.size();
+    }
+
+    // Deja el evento en la cola sin esperar; si no entra, el cliente es lento y se lo desconecta
+    private void entregar(Suscriptor suscriptor, SseEmitter.SseEventBuilder evento) {
+        if (!suscriptor.cola().offer(evento)) {
+            descartados.increment();
+            cerrar(suscriptor);
+        }
+    }
+
+    // Hilo virtual del suscriptor: escribe en la conexión lo que llega a su cola
+    private void enviar(Suscriptor suscriptor) {
+        try {
+            while (true) {
+                SseEmitter.SseEventBuilder evento = suscriptor.cola().take();
+                if (evento == CERRAR) {
+                    suscriptor.emitter().complete();
+                    return;
+                }
+                suscriptor.emitter().send(evento);
+            }
+        } catch (IOException | IllegalStateException e) {
+            // El cliente cerró la conexión (o ya estaba completada)
+            cerrar(suscriptor);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void cerrar(Suscriptor suscriptor) {
+        if (suscriptores.remove(suscriptor)) {
+            // Lo pendiente ya no importa: se vacía para que la marca de cierre siempre entre
+            suscriptor.cola().clear();
+            suscriptor.cola().offer(CERRAR);
+        }
+    }
+
+    @PreDestroy
+    public void cerrarTodos() {
+        suscriptores.forEach(this::cerrar);
+    }
+
+    /**
+     * @param email null = admin (ve todos los tickets); si no, email normalizado del cliente
+     */
+    private record Suscriptor(SseEmitter emitter, String email, BlockingQueue<SseEmitter.SseEventBuilder> cola) {
+
+        boolean puedeVer(TicketEvento evento) {
+            return email == null || email.equals(evento.clienteEmailNormalizado());
+        }
+
+        // Identidad por instancia: dos conexiones del mismo usuario son suscriptores distintos
+        @Override
+        public boolean equals(Object otro) {
+            return this == otro;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(this);
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.java.proyect.service;
+
+import com.example.java.proyect.models.requests.TicketModel;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+/**
+ * 📣 Cambio de un ticket, publicado por TicketService y repartido por TicketEventBus (SSE).
+ *
+ * @param tipo      creado, actualizado, eliminado o importados
+ * @param id        ticket afectado (null en importados: el panel recarga su lista)
+ * @param ticket    ticket ya guardado, o null si el cambio se hizo sin cargarlo (el panel lo pide por id)
+ * @param clienteEmailNormalizado dueño del ticket, para decidir quién recibe el evento (no se envía)
+ */
+public record TicketEvento(String tipo, Long id, TicketModel ticket, @JsonIgnore String clienteEmailNormalizado) {
+
+    public static final String CREADO = "creado";
+    public static final String ACTUALIZADO = "actualizado";
+    public static final String ELIMINADO = "eliminado";
+    public static final String IMPORTADOS = "importados";
+
+    static TicketEvento de(String tipo, TicketModel ticket) {
+        return new TicketEvento(tipo, ticket.getId(), ticket, ticket.getClienteEmailNormalizado());
+    }
+}
@@ -0,0 +1,419 @@
+package com.example.java.proyect.service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.stream.Stream;
+
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.LowerCaseFilter;
+import org.apache.lucene.analysis.StopFilter;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.es.SpanishAnalyzer;
+import org.apache.lucene.analysis.miscellaneous.ASCIIFoldingFilter;
+import org.apache.lucene.analysis.standard.StandardTokenizer;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.LongPoint;
+import org.apache.lucene.document.NumericDocValuesField;
+import org.apache.lucene.document.StoredField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause.Occur;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.BoostQuery;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.MatchAllDocsQuery;
+import org.apache.lucene.search.PrefixQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.Sort;
+import org.apache.lucene.search.SortField;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.java.proyect.TicketRepository;
+import com.example.java.proyect.models.requests.TicketModel;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.CacheRetrieveMode;
+import jakarta.persistence.CacheStoreMode;
+import jakarta.persistence.EntityManager;
+
+/**
+ * 🔍 Índice de texto (Lucene, en memoria) sobre la descripción y la solución de los tickets.
+ *
+ * - Se arma al arrancar recorriendo la tabla una vez (en streaming) y después se mantiene
+ *   con los TicketEvento que publica TicketService: altas, cambios y bajas. Los cambios hechos
+ *   en otras réplicas llegan por InvalidacionEntreReplicas y se releen de la base.
+ * - Los cambios se aplican en un hilo virtual propio que junta los que llegan seguidos,
+ *   así guardar un ticket nunca espera al índice (puede tardar unos milisegundos en verse).
+ * - Español: sin mayúsculas, sin palabras vacías ("de", "la") y sin tildes, así
+ *   "reparacion" encuentra "reparación". Cada palabra buscada también vale como prefijo ("pant" → "pantalla").
+ * - Las búsquedas devuelven solo los IDs mejor puntuados; los tickets se leen por clave primaria.
+ * - Si una reconstrucción falla (base caída al arrancar, por ejemplo) se reintenta sola con
+ *   espera creciente. Mientras tanto tickets_indice_listo vale 0 y las búsquedas pueden salir incompletas.
+ */
+@Component
+public class TicketSearchIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(TicketSearchIndex.class);
+
+    // Campos del documento de Lucene
+    private static final String ID = "id";
+    private static final String DESCRIPCION = "descripcion";
+    private static final String SOLUCION = "solucion";
+    private static final String ESTADO = "estado";
+    private static final String PRIORIDAD = "prioridad";
+    private static final String FECHA = "fecha";   // fechaCreacion en días desde 1970
+
+    // Tickets por ronda al reconstruir el índice y al releer cambios de la base
+    private static final int BLOQUE = 500;
+
+    // Marca en la cola: reconstruir el índice entero (arranque o importación masiva)
+    private static final TicketEvento REINDEXAR = new TicketEvento("reindexar", null, null, null);
+
+    private final TicketRepository ticketRepository;
+    private final EntityManager entityManager;
+    private final TransactionTemplate soloLectura;
+    private final Analyzer analizador = new AnalizadorEspanol();
+    private final IndexWriter writer;
+    private final SearcherManager searcherManager;
+    private final BlockingQueue<TicketEvento> pendientes = new LinkedBlockingQueue<>();
+    private final Thread indexador;
+    private final Counter reconstruccionesFallidas;
+
+    // Reconstrucciones fallidas seguidas (0 = el índice refleja la base)
+    private volatile int fallosSeguidos;
+    private volatile boolean listo;
+
+    // Espera antes de reintentar una reconstrucción fallida: se duplica en cada fallo hasta el máximo
+    @Value("${tickets.indice.reintento-base-ms:1000}")
+    private long reintentoBaseMs;
+
+    @Value("${tickets.indice.reintento-max-ms:300000}")
+    private long reintentoMaxMs;
+
+    public TicketSearchIndex(TicketRepository ticketRepository, EntityManager entityManager,
+                             PlatformTransactionManager transactionManager, MeterRegistry meterRegistry) throws IOException {
+        this.ticketRepository = ticketRepository;
+        this.entityManager = entityManager;
+        this.soloLectura = new TransactionTemplate(transactionManager);
+        this.soloLectura.setReadOnly(true);
+        this.writer = new IndexWriter(new ByteBuffersDirectory(), new IndexWriterConfig(analizador));
+        this.searcherManager = new SearcherManager(writer, null);
+        this.indexador = Thread.ofVirtual().name("indice-tickets").unstarted(this::indexar);
+        Gauge.builder("tickets.indice.listo", this, indice -> indice.listo ? 1 : 0)
+                .description("1 si el índice de búsqueda terminó de armarse, 0 si falta o falló la última reconstrucción")
+                .register(meterRegistry);
+        this.reconstruccionesFallidas = Counter.builder("tickets.indice.reconstrucciones.fallidas")
+                .description("Reconstrucciones del índice de búsqueda que fallaron (se reintentan solas)")
+                .register(meterRegistry);
+    }
+
+    // ------------------- Carga y cambios -------------------
+
+    /**
+     * 🚀 Arma el índice al terminar de arrancar (sin demorar el arranque).
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void inicializar() {
+        pendientes.add(REINDEXAR);
+        indexador.start();
+    }
+
+    /**
+     * 📣 Cambio confirmado de un ticket: se anota y lo aplica el hilo del índice.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void registrar(TicketEvento evento) {
+        pendientes.add(TicketEvento.IMPORTADOS.equals(evento.tipo()) ? REINDEXAR : evento);
+    }
+
+    /**
+     * 🔄 Cambio hecho en otra réplica (lo avisa InvalidacionEntreReplicas): se relee el ticket
+     * de la base, y si ya no existe se saca del índice.
+     * @param id null = cambiaron muchos tickets: se reconstruye el índice entero
+     */
+    public void releer(Long id) {
+        pendientes.add(id == null ? REINDEXAR : new TicketEvento(TicketEvento.ACTUALIZADO, id, null, null));
+    }
+
+    // Hilo del índice: toma todo lo pendiente, lo aplica y publica el resultado para las búsquedas
+    private void indexar() {
+        List<TicketEvento> lote = new ArrayList<>();
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                lote.add(pendientes.take());
+                pendientes.drainTo(lote);
+                aplicar(lote);
+                searcherManager.maybeRefresh();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (RuntimeException | IOException e) {
+                // Se pierde este lote, no el índice: la próxima reconstrucción lo corrige (si falló una, ya está encolada)
+                log.error("❌ No se pudo actualizar el índice de búsqueda", e);
+            } finally {
+                lote.clear();
+            }
+        }
+    }
+
+    private void aplicar(List<TicketEvento> lote) throws IOException {
+        if (lote.contains(REINDEXAR)) {
+            try {
+                reconstruir();
+            } catch (RuntimeException | IOException e) {
+                reintentarReconstruccion();
+                throw e;
+            }
+            searcherManager.maybeRefreshBlocking(); // "listo" recién cuando las búsquedas ya lo ven
+            fallosSeguidos = 0;
+            listo = true;
+            return; // El índice ya refleja la base completa, incluidos los cambios del lote
+        }
+
+        // El último evento de cada ticket es el que vale
+        Map<Long, TicketModel> conDatos = new HashMap<>();
+        Set<Long> aReleer = new HashSet<>();
+        for (TicketEvento evento : lote) {
+            conDatos.remove(evento.id());
+            aReleer.remove(evento.id());
+            if (TicketEvento.ELIMINADO.equals(evento.tipo())) {
+                writer.deleteDocuments(new Term(ID, evento.id().toString()));
+            } else if (evento.ticket() != null) {
+                conDatos.put(evento.id(), evento.ticket());
+            } else if (evento.id() != null) {
+                aReleer.add(evento.id()); // Cambio hecho sin cargar el ticket (PATCH, estado masivo, otra réplica)
+            }
+        }
+
+        for (TicketModel ticket : conDatos.values()) {
+            guardar(ticket);
+        }
+        List<Long> ids = new ArrayList<>(aReleer);
+        soloLectura.executeWithoutResult(estado -> {
+            sinSegundoNivel();
+            for (int desde = 0; desde < ids.size(); desde += BLOQUE) {
+                for (TicketModel ticket : ticketRepository.findAllById(ids.subList(desde, Math.min(desde + BLOQUE, ids.size())))) {
+                    guardarOFallar(ticket);
+                    aReleer.remove(ticket.getId());
+                }
+            }
+        });
+        // Los que no están en la base se borraron (en otra réplica): fuera del índice
+        for (Long id : aReleer) {
+            writer.deleteDocuments(new Term(ID, id.toString()));
+        }
+    }
+
+    // Vuelve a encolar la reconstrucción después de una espera (1 s, 2 s, 4 s... hasta el máximo)
+    private void reintentarReconstruccion() {
+        listo = false;
+        reconstruccionesFallidas.increment();
+        long espera = Math.min(reintentoBaseMs << Math.min(fallosSeguidos++, 20), reintentoMaxMs);
+        log.warn("🔁 Se reintenta armar el índice de búsqueda en {} ms", espera);
+        Thread.ofVirtual().name("indice-tickets-reintento").start(() -> {
+            try {
+                Thread.sleep(espera);
+                pendientes.add(REINDEXAR);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+    }
+
+    /**
+     * 🩺 true si el índice terminó de armarse y la última reconstrucción no falló.
+     */
+    public boolean listo() {
+        return listo;
+    }
+
+    // Vacía el índice y lo vuelve a cargar leyendo la tabla en streaming
+    private void reconstruir() throws IOException {
+        writer.deleteAll();
+        soloLectura.executeWithoutResult(estado -> {
+            sinSegundoNivel();
+            try (Stream<TicketModel> tickets = ticketRepository.streamTodos()) {
+                int leidos = 0;
+                for (TicketModel ticket : (Iterable<TicketModel>) tickets::iterator) {
+                    guardarOFallar(ticket);
+                    if (++leidos % BLOQUE == 0) {
+                        entityManager.clear(); // Memoria constante aunque haya muchos tickets
+                    }
+                }
+            }
+        });
+    }
+
+    // El índice lee siempre de la base y no carga la caché de segundo nivel: este hilo relee
+    // tickets justo después de UPDATE directos y, si guardara lo leído, podría dejar en la caché
+    // una versión que otra transacción acaba de cambiar (y sacar de la caché)
+    private void sinSegundoNivel() {
+        entityManager.setProperty("jakarta.persistence.cache.retrieveMode", CacheRetrieveMode.BYPASS);
+        entityManager.setProperty("jakarta.persistence.cache.storeMode", CacheStoreMode.BYPASS);
+    }
+
+    private void guardarOFallar(TicketModel ticket) {
+        try {
+            guardar(ticket);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void guardar(TicketModel ticket) throws IOException {
+        Document doc = new Document();
+        String id = ticket.getId().toString();
+        doc.add(new StringField(ID, id, Field.Store.NO));
+        doc.add(new StoredField(ID, ticket.getId()));
+        doc.add(new NumericDocValuesField(ID, ticket.getId()));   // Desempate: los más nuevos primero
+        if (ticket.getDescripcionProblema() != null) {
+            doc.add(new TextField(DESCRIPCION, ticket.getDescripcionProblema(), Field.Store.NO));
+        }
+        if (ticket.getSolucion() != null) {
+            doc.add(new TextField(SOLUCION, ticket.getSolucion(), Field.Store.NO));
+        }
+        if (ticket.getEstado() != null) {
+            doc.add(new StringField(ESTADO, ticket.getEstado().toLowerCase(Locale.ROOT), Field.Store.NO));
+        }
+        if (ticket.getPrioridad() != null) {
+            doc.add(new StringField(PRIORIDAD, ticket.getPrioridad().toLowerCase(Locale.ROOT), Field.Store.NO));
+        }
+        if (ticket.getFechaCreacion() != null) {
+            doc.add(new LongPoint(FECHA, ticket.getFechaCreacion().toEpochDay()));
+        }
+        writer.updateDocument(new Term(ID, id), doc);
+    }
+
+    // ------------------- Búsqueda -------------------
+
+    /**
+     * 🔎 IDs de los tickets que mejor coinciden, del más relevante al menos relevante.
+     * @param texto palabras a buscar en descripción y solución (todas tienen que aparecer); null = solo filtros
+     * @param estado / prioridad filtros exactos (sin distinguir mayúsculas), opcionales
+     * @param desde / hasta rango de fechaCreacion (inclusive), opcionales
+     * @param limite cantidad máxima de resultados
+     */
+    public List<Long> buscar(String texto, String estado, String prioridad, LocalDate desde, LocalDate hasta, int limite) {
+        BooleanQuery.Builder consulta = new BooleanQuery.Builder();
+
+        List<String> palabras = texto == null ? List.of() : analizar(texto);
+        for (String palabra : palabras) {
+            consulta.add(palabra(palabra), Occur.MUST);
+        }
+        if (palabras.isEmpty()) {
+            consulta.add(new MatchAllDocsQuery(), Occur.MUST);
+        }
+        if (estado != null && !estado.isBlank()) {
+            consulta.add(new TermQuery(new Term(ESTADO, estado.toLowerCase(Locale.ROOT))), Occur.FILTER);
+        }
+        if (prioridad != null && !prioridad.isBlank()) {
+            consulta.add(new TermQuery(new Term(PRIORIDAD, prioridad.toLowerCase(Locale.ROOT))), Occur.FILTER);
+        }
+        if (desde != null || hasta != null) {
+            consulta.add(LongPoint.newRangeQuery(FECHA,
+                    desde == null ? Long.MIN_VALUE : desde.toEpochDay(),
+                    hasta == null ? Long.MAX_VALUE : hasta.toEpochDay()), Occur.FILTER);
+        }
+
+        Sort orden = new Sort(SortField.FIELD_SCORE, new SortField(ID, SortField.Type.LONG, true));
+        try {
+            IndexSearcher searcher = searcherManager.acquire();
+            try {
+                List<Long> ids = new ArrayList<>();
+                for (ScoreDoc hit : searcher.search(consulta.build(), limite, orden).scoreDocs) {
+                    ids.add(searcher.storedFields().document(hit.doc).getField(ID).numericValue().longValue());
+                }
+                return ids;
+            } finally {
+                searcherManager.release(searcher);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Una palabra en descripción o solución; la palabra exacta puntúa más que un prefijo
+    private Query palabra(String palabra) {
+        BooleanQuery.Builder campos = new BooleanQuery.Builder();
+        for (String campo : List.of(DESCRIPCION, SOLUCION)) {
+            campos.add(new BoostQuery(new TermQuery(new Term(campo, palabra)), 2f), Occur.SHOULD);
+            if (palabra.length() >= 2) {
+                campos.add(new PrefixQuery(new Term(campo, palabra)), Occur.SHOULD);
+            }
+        }
+        return campos.build();
+    }
+
+    // Pasa el texto buscado por el mismo análisis que los tickets (minúsculas, sin tildes)
+    private List<String> analizar(String texto) {
+        List<String> palabras = new ArrayList<>();
+        try (TokenStream tokens = analizador.tokenStream(DESCRIPCION, texto)) {
+            CharTermAttribute termino = tokens.addAttribute(CharTermAttribute.class);
+            tokens.reset();
+            while (tokens.incrementToken()) {
+                palabras.add(termino.toString());
+            }
+            tokens.end();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return palabras;
+    }
+
+    @PreDestroy
+    public void cerrar() throws IOException {
+        indexador.interrupt();
+        searcherManager.close();
+        writer.close();
+    }
+
+    /**
+     * 🇪🇸 Palabras en minúsculas, sin palabras vacías del español y sin tildes.
+     * Las palabras vacías se quitan antes de sacar las tildes (la lista las tiene con tilde: "él", "más").
+     */
+    private static final class AnalizadorEspanol extends Analyzer {
+
+        @Override
+        protected TokenStreamComponents createComponents(String campo) {
+            StandardTokenizer tokenizer = new StandardTokenizer();
+            TokenStream tokens = new LowerCaseFilter(tokenizer);
+            tokens = new StopFilter(tokens, SpanishAnalyzer.getDefaultStopSet());
+            tokens = new ASCIIFoldingFilter(tokens);
+            return new TokenStreamComponents(tokenizer, tokens);
+        }
+
+        @Override
+        protected TokenStream normalize(String campo, TokenStream entrada) {
+            return new ASCIIFoldingFilter(new LowerCaseFilter(entrada));
+        }
+    }
+}
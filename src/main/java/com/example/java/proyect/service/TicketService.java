@@ -1,20 +1,73 @@
 package com.example.java.proyect.service;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDate; // Manejar solo la fecha
+import java.time.YearMonth;
 import java.time.ZoneId;
 import java.time.format.TextStyle;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Optional;
-
+import java.util.Set;
+import java.util.stream.Stream;
+
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.example.java.proyect.TicketRepository;
+import com.example.java.proyect.TicketTransicionRepository;
+import com.example.java.proyect.config.CacheConfig;
+import com.example.java.proyect.entities.TicketTransicionEntity;
+import com.example.java.proyect.models.requests.TicketFiltroRequestModel;
 import com.example.java.proyect.models.requests.TicketModel;
+import com.example.java.proyect.models.responses.TicketMasivoRest;
+import com.example.java.proyect.models.responses.TicketPaginaRest;
+import com.example.java.proyect.models.responses.TicketVersionRest;
+import com.example.java.proyect.share.dto.TicketEstadoResumen;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvParser;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
 
 /**
  * 🎯 Servicio que encapsula la lógica de negocio relacionada a los tickets.
@@ -24,27 +77,337 @@ import com.example.java.proyect.models.requests.TicketModel;
 @Service
 public class TicketService {
 
-    private final TicketRepository ticketRepository; // Acceso a la DB
-    private final EmailService emailService;         // Enviar emails
+    private static final ZoneId ZONA_ARGENTINA = ZoneId.of("America/Argentina/Buenos_Aires");
+    private static final Locale LOCALE_ES = Locale.forLanguageTag("es");
+
+    // Tickets que se mandan a la base antes de soltarlos de memoria al importar
+    // (Hibernate los envía en lotes JDBC de hibernate.jdbc.batch_size)
+    private static final int IMPORTACION_FLUSH = 500;
+    // Máximo de IDs por sentencia en los cambios de estado masivos
+    private static final int ESTADO_MASIVO_BLOQUE = 1000;
+
+    // Campos de TicketModel que se pueden pedir (fields=) u ordenar (sort=) en GET /tickets
+    private static final Set<String> CAMPOS_LISTADO = Set.of(
+            "id", "clienteEmail", "descripcionProblema", "estado", "solucion", "fechaCreacion", "precio",
+            "prioridad", "notificarCliente", "fechaPendiente", "fechaReparacion", "fechaListo", "version");
+
+    // 📑 Lector de CSV: primera fila = nombres de los campos de TicketModel
+    private static final CsvMapper CSV = CsvMapper.builder()
+            .addModule(new JavaTimeModule())
+            .enable(CsvParser.Feature.EMPTY_STRING_AS_NULL)
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+            .build();
 
-    public TicketService(TicketRepository ticketRepository, EmailService emailService) {
+    private final TicketRepository ticketRepository; // Acceso a la DB
+    private final EmailService emailService;         // Armar el cuerpo de los emails
+    private final EmailOutboxService emailOutbox;    // Encolar emails para envío en segundo plano
+    private final TicketStatsCache statsCache;       // Contadores del dashboard en memoria
+    private final EntityManager entityManager;       // Para soltar entidades ya exportadas
+    private final ObjectMapper objectMapper;         // Serializar tickets al exportar
+    private final MeterRegistry meterRegistry;       // Métricas (transiciones de estado)
+    private final Cache ticketsPorCliente;           // Lista de tickets de cada cliente (por email normalizado)
+    private final ApplicationEventPublisher eventos; // Avisos de cambios para los paneles (TicketEventBus)
+    private final TicketSearchIndex indiceBusqueda;  // Búsqueda de texto (Lucene en memoria)
+    private final TicketTransicionRepository transicionRepository; // Historial de cambios de estado
+
+    @Value("${tickets.paginacion.tamanio-default:50}")
+    private int tamanioPaginaDefault;
+
+    @Value("${tickets.paginacion.tamanio-max:500}")
+    private int tamanioPaginaMax;
+
+    @Value("${tickets.busqueda.limite-default:20}")
+    private int limiteBusquedaDefault;
+
+    @Value("${tickets.busqueda.limite-max:100}")
+    private int limiteBusquedaMax;
+
+    public TicketService(TicketRepository ticketRepository, EmailService emailService, EmailOutboxService emailOutbox,
+                         TicketStatsCache statsCache, EntityManager entityManager, ObjectMapper objectMapper,
+                         MeterRegistry meterRegistry, CacheManager cacheManager, ApplicationEventPublisher eventos,
+                         TicketSearchIndex indiceBusqueda, TicketTransicionRepository transicionRepository) {
         this.ticketRepository = ticketRepository;
         this.emailService = emailService;
+        this.emailOutbox = emailOutbox;
+        this.statsCache = statsCache;
+        this.entityManager = entityManager;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        this.ticketsPorCliente = cacheManager.getCache(CacheConfig.TICKETS_POR_CLIENTE);
+        this.eventos = eventos;
+        this.indiceBusqueda = indiceBusqueda;
+        this.transicionRepository = transicionRepository;
     }
 
     // ------------------- CRUD básico -------------------
 
     public TicketModel crearTicket(TicketModel ticket) {
         ticket.setClienteEmail(ticket.getClienteEmail().toLowerCase());
-        return ticketRepository.save(ticket);
+        TicketModel guardado = ticketRepository.save(ticket);
+        eventos.publishEvent(new TicketStatsCache.Delta().alta(guardado.getEstado(), guardado.getFechaCreacion()));
+        invalidarCliente(guardado);
+        eventos.publishEvent(TicketEvento.de(TicketEvento.CREADO, guardado));
+        return guardado;
+    }
+
+    /**
+     * 📥 Importa tickets leyendo el cuerpo a medida que llega (no se arma la lista completa en memoria).
+     * Formatos: JSON (un array o un ticket por línea, NDJSON) o CSV con encabezado.
+     * Todo en una transacción: si una fila es inválida (o se corta la subida) no se importa nada.
+     * Los INSERT salen en lotes JDBC gracias a los IDs por bloques de TicketModel.
+     */
+    @Transactional(rollbackFor = IOException.class)
+    public TicketMasivoRest importarTickets(InputStream cuerpo, boolean csv) throws IOException {
+        ObjectReader lector = csv
+                ? CSV.readerFor(TicketModel.class).with(CsvSchema.emptySchema().withHeader())
+                : objectMapper.readerFor(TicketModel.class);
+
+        List<TicketModel> importados = new ArrayList<>(IMPORTACION_FLUSH);
+        Set<String> clientes = new HashSet<>();
+        TicketStatsCache.Delta altas = new TicketStatsCache.Delta(); // Se suma a las estadísticas si se confirma
+        int fila = 0;
+        try (MappingIterator<TicketModel> filas = lector.readValues(cuerpo)) {
+            while (filas.hasNextValue()) {
+                TicketModel ticket = filas.nextValue();
+                fila++;
+                if (ticket.getClienteEmail() == null || ticket.getClienteEmail().isBlank()) {
+                    throw new IllegalArgumentException("Fila " + fila + ": falta clienteEmail");
+                }
+                ticket.setId(null); // El ID lo asigna la base
+                ticket.setClienteEmail(ticket.getClienteEmail().toLowerCase());
+                entityManager.persist(ticket);
+                importados.add(ticket);
+
+                if (importados.size() == IMPORTACION_FLUSH) {
+                    registrarImportados(importados, clientes, altas);
+                }
+            }
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Fila " + (fila + 1) + " inválida: " + e.getOriginalMessage(), e);
+        }
+        registrarImportados(importados, clientes, altas);
+
+        clientes.forEach(ticketsPorCliente::evict);
+        eventos.publishEvent(altas);
+        // Un solo aviso (para los admins) en vez de uno por ticket importado
+        if (fila > 0) {
+            eventos.publishEvent(new TicketEvento(TicketEvento.IMPORTADOS, null, null, null));
+        }
+        return new TicketMasivoRest(fila, 0);
+    }
+
+    // Manda el bloque a la base, lo anota para las estadísticas y lo suelta de memoria
+    private void registrarImportados(List<TicketModel> importados, Set<String> clientes, TicketStatsCache.Delta altas) {
+        entityManager.flush();
+        for (TicketModel ticket : importados) {
+            altas.alta(ticket.getEstado(), ticket.getFechaCreacion());
+            clientes.add(ticket.getClienteEmailNormalizado());
+        }
+        entityManager.clear();
+        importados.clear();
     }
 
     public List<TicketModel> listarTodos() {
         return ticketRepository.findAll();
     }
 
+    /**
+     * 🔎 Listado con filtros, orden y columnas elegidas, resuelto en la base (no en el navegador).
+     * Sin filtros, orden ni columnas devuelve lo mismo que listarTodos().
+     * @param orden campos de TicketModel (desempata por id); vacío = por id
+     * @param campos columnas a devolver separadas por coma (ej. "id,estado,prioridad"): se leen solo
+     *               esas columnas (sin armar entidades) y cada ticket sale como un objeto con esos campos.
+     *               null = tickets completos
+     * @return List<TicketModel>, o List<Map<String, Object>> si se pidieron campos
+     */
+    public List<?> listar(TicketFiltroRequestModel filtro, Sort orden, String campos) {
+        boolean sinCampos = campos == null || campos.isBlank();
+        if (filtro.estaVacio() && orden.isUnsorted() && sinCampos) {
+            return listarTodos();
+        }
+
+        for (Sort.Order criterio : orden) {
+            validarCampo(criterio.getProperty());
+        }
+        Sort ordenFinal = orden.getOrderFor("id") == null ? orden.and(Sort.by("id")) : orden;
+        Specification<TicketModel> especificacion = especificacion(filtro);
+
+        if (sinCampos) {
+            return ticketRepository.findAll(especificacion, ordenFinal);
+        }
+
+        List<String> columnas = new ArrayList<>();
+        for (String campo : campos.split(",")) {
+            String nombre = campo.trim();
+            if (!nombre.isEmpty() && !columnas.contains(nombre)) {
+                validarCampo(nombre);
+                columnas.add(nombre);
+            }
+        }
+        return proyectar(especificacion, ordenFinal, columnas);
+    }
+
+    // WHERE armado solo con los filtros que vinieron (cada uno respaldado por un índice, ver TicketModel)
+    private static Specification<TicketModel> especificacion(TicketFiltroRequestModel filtro) {
+        return (t, query, cb) -> {
+            List<Predicate> condiciones = new ArrayList<>();
+            if (filtro.getEstado() != null) {
+                condiciones.add(cb.equal(t.get("estado"), filtro.getEstado()));
+            }
+            if (filtro.getPrioridad() != null) {
+                condiciones.add(cb.equal(t.get("prioridad"), filtro.getPrioridad()));
+            }
+            if (filtro.getClienteEmail() != null) {
+                condiciones.add(cb.equal(t.get("clienteEmailNormalizado"), TicketModel.normalizarEmail(filtro.getClienteEmail())));
+            }
+            if (filtro.getCreadoDesde() != null) {
+                condiciones.add(cb.greaterThanOrEqualTo(t.get("fechaCreacion"), filtro.getCreadoDesde()));
+            }
+            if (filtro.getCreadoHasta() != null) {
+                condiciones.add(cb.lessThanOrEqualTo(t.get("fechaCreacion"), filtro.getCreadoHasta()));
+            }
+            if (filtro.getListoDesde() != null) {
+                condiciones.add(cb.greaterThanOrEqualTo(t.get("fechaListo"), filtro.getListoDesde()));
+            }
+            if (filtro.getListoHasta() != null) {
+                condiciones.add(cb.lessThanOrEqualTo(t.get("fechaListo"), filtro.getListoHasta()));
+            }
+            if (filtro.getPrecioMin() != null) {
+                condiciones.add(cb.greaterThanOrEqualTo(t.get("precio"), filtro.getPrecioMin()));
+            }
+            if (filtro.getPrecioMax() != null) {
+                condiciones.add(cb.lessThanOrEqualTo(t.get("precio"), filtro.getPrecioMax()));
+            }
+            return cb.and(condiciones.toArray(Predicate[]::new));
+        };
+    }
+
+    // SELECT solo de las columnas pedidas; cada fila sale como { campo: valor } en el orden pedido
+    private List<Map<String, Object>> proyectar(Specification<TicketModel> especificacion, Sort orden, List<String> columnas) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<TicketModel> t = query.from(TicketModel.class);
+
+        List<Selection<?>> seleccion = new ArrayList<>(columnas.size());
+        for (String columna : columnas) {
+            seleccion.add(t.get(columna).alias(columna));
+        }
+        query.multiselect(seleccion);
+        query.where(especificacion.toPredicate(t, query, cb));
+        query.orderBy(QueryUtils.toOrders(orden, t, cb));
+
+        List<Map<String, Object>> filas = new ArrayList<>();
+        for (Tuple tupla : entityManager.createQuery(query).getResultList()) {
+            Map<String, Object> fila = new LinkedHashMap<>();
+            for (String columna : columnas) {
+                fila.put(columna, tupla.get(columna));
+            }
+            filas.add(fila);
+        }
+        return filas;
+    }
+
+    private static void validarCampo(String campo) {
+        if (!CAMPOS_LISTADO.contains(campo)) {
+            throw new IllegalArgumentException("Campo desconocido: " + campo + " (válidos: " + CAMPOS_LISTADO + ")");
+        }
+    }
+
+    /**
+     * 📄 Devuelve una página de tickets usando el id como cursor (keyset).
+     * @param despuesDe id del último ticket recibido (null o 0 para la primera página)
+     * @param tamanio cantidad pedida (se usa el default si es null y se recorta al máximo)
+     */
+    public TicketPaginaRest listarPagina(Long despuesDe, Integer tamanio) {
+        int limite = tamanio == null || tamanio <= 0 ? tamanioPaginaDefault : Math.min(tamanio, tamanioPaginaMax);
+        long cursor = despuesDe == null ? 0L : despuesDe;
+
+        List<TicketModel> tickets = ticketRepository.findByIdGreaterThanOrderByIdAsc(cursor, Limit.of(limite));
+
+        // Si vino la página completa puede haber más: el cursor es el último id
+        Long siguiente = tickets.size() == limite ? tickets.get(tickets.size() - 1).getId() : null;
+        return new TicketPaginaRest(tickets, siguiente);
+    }
+
+    /**
+     * 🔍 Busca tickets por texto (descripción y solución) con filtros opcionales, del más relevante al menos.
+     * El índice devuelve los IDs y los tickets se leen por clave primaria (no se recorre la tabla).
+     */
+    public List<TicketModel> buscar(String texto, String estado, String prioridad,
+                                    LocalDate desde, LocalDate hasta, Integer limite) {
+        int cantidad = limite == null || limite <= 0 ? limiteBusquedaDefault : Math.min(limite, limiteBusquedaMax);
+        List<Long> ids = indiceBusqueda.buscar(texto, estado, prioridad, desde, hasta, cantidad);
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+
+        // findAllById no respeta el orden: se reordena según la relevancia
+        Map<Long, TicketModel> porId = new HashMap<>();
+        for (TicketModel ticket : ticketRepository.findAllById(ids)) {
+            porId.put(ticket.getId(), ticket);
+        }
+        List<TicketModel> resultado = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            TicketModel ticket = porId.get(id);
+            if (ticket != null) { // Borrado hace instantes (el índice todavía no se enteró)
+                resultado.add(ticket);
+            }
+        }
+        return resultado;
+    }
+
+    /**
+     * 🌊 Escribe todos los tickets en la salida a medida que se leen de la base.
+     * Cada ticket se serializa y se suelta del contexto de persistencia, así la memoria
+     * usada es constante sin importar cuántos tickets haya.
+     * @param out salida HTTP
+     * @param comoArray true = un array JSON ([...]), false = NDJSON (un ticket por línea)
+     */
+    @Transactional(readOnly = true)
+    public void exportarTodos(OutputStream out, boolean comoArray) throws IOException {
+        // Sin FLUSH_AFTER_WRITE_VALUE (activo por defecto en Jackson): se manda al cliente de a
+        // bloques y no un flush (y un bloque gzip) por ticket
+        ObjectWriter escritor = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        try (Stream<TicketModel> tickets = ticketRepository.streamTodos();
+             SequenceWriter writer = comoArray
+                     ? escritor.writeValuesAsArray(out)
+                     : escritor.withRootValueSeparator("\n").writeValues(out)) {
+
+            int escritos = 0;
+            for (TicketModel ticket : (Iterable<TicketModel>) tickets::iterator) {
+                writer.write(ticket);
+                entityManager.detach(ticket);
+
+                // Mandamos al cliente cada bloque en vez de esperar al final
+                if (++escritos % 500 == 0) {
+                    writer.flush();
+                }
+            }
+            if (!comoArray && escritos > 0) {
+                writer.flush(); // Lo que quedó en el buffer del writer va antes del salto final
+                out.write('\n'); // NDJSON: cada línea termina en salto de línea
+            }
+        }
+    }
+
+    /**
+     * 👤 Tickets de un cliente (su panel). Se sirven desde la caché ticketsPorCliente:
+     * el panel se refresca mucho más seguido de lo que cambian sus tickets. Cada alta,
+     * modificación o baja de un ticket invalida la entrada de ese cliente.
+     */
     public List<TicketModel> listarPorCliente(String email) {
-        return ticketRepository.findByClienteEmailIgnoreCase(email);
+        String clave = TicketModel.normalizarEmail(email);
+        // Caffeine carga una sola vez por clave aunque lleguen varios pedidos juntos
+        return ticketsPorCliente.get(clave, () -> List.copyOf(ticketRepository.findByClienteEmailNormalizado(clave)));
+    }
+
+    /**
+     * 🧹 Saca de la caché la lista del dueño del ticket (si hay transacción, después del commit).
+     */
+    private void invalidarCliente(TicketModel ticket) {
+        if (ticket.getClienteEmailNormalizado() != null) {
+            ticketsPorCliente.evict(ticket.getClienteEmailNormalizado());
+        }
     }
 
     public Optional<TicketModel> obtenerPorId(Long id) {
@@ -52,17 +415,37 @@ public class TicketService {
     }
 
     public void eliminarTicket(Long id) {
-        ticketRepository.deleteById(id);
+        // Necesitamos el estado y la fecha para descontarlo de las estadísticas
+        ticketRepository.findById(id).ifPresent(ticket -> {
+            ticketRepository.delete(ticket);
+            eventos.publishEvent(new TicketStatsCache.Delta().baja(ticket.getEstado(), ticket.getFechaCreacion()));
+            invalidarCliente(ticket);
+            eventos.publishEvent(new TicketEvento(TicketEvento.ELIMINADO, id, null, ticket.getClienteEmailNormalizado()));
+        });
     }
 
     // ------------------- Actualizar ticket -------------------
 
+    /**
+     * ✏️ Actualiza un ticket y, si corresponde, encola el email de aviso al cliente.
+     * El email se guarda en la bandeja de salida dentro de la misma transacción:
+     * la respuesta no espera al servidor SMTP y el aviso no se pierde si la app se reinicia.
+     * Si `nuevo` trae la versión, tiene que coincidir con la guardada (si no, otro admin lo
+     * cambió antes: ObjectOptimisticLockingFailureException → 409). El UPDATE lleva solo las
+     * columnas modificadas y vuelve a comprobar la versión en el WHERE.
+     */
+    @Transactional
     public TicketModel actualizarTicket(Long id, TicketModel nuevo) {
         TicketModel ticket = ticketRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Ticket no encontrado con ID: " + id));
+        if (nuevo.getVersion() != null && !nuevo.getVersion().equals(ticket.getVersion())) {
+            throw new ObjectOptimisticLockingFailureException(TicketModel.class, id);
+        }
 
         // Guardamos snapshot de valores anteriores
         String estadoAnterior = ticket.getEstado();
+        Instant estadoDesdeAnterior = ticket.getEstadoDesde();
+        Instant ahora = Instant.now();
         String solucionAnterior = ticket.getSolucion();
         Double precioAnterior = ticket.getPrecio();
         String prioridadAnterior = ticket.getPrioridad();
@@ -74,6 +457,7 @@ public class TicketService {
         // Actualizamos solo si cambian los valores
         if (nuevo.getEstado() != null && !nuevo.getEstado().equalsIgnoreCase(estadoAnterior)) {
             ticket.setEstado(nuevo.getEstado());
+            ticket.setEstadoDesde(ahora);
 
             // Fechas automáticas según estado
             switch (nuevo.getEstado().toLowerCase()) {
@@ -84,12 +468,12 @@ public class TicketService {
                     break;
                 case "en reparación":
                     if (ticket.getFechaReparacion() == null) {
-                        ticket.setFechaReparacion(LocalDate.now(ZoneId.of("America/Argentina/Buenos_Aires")));
+                        ticket.setFechaReparacion(LocalDate.now(ZONA_ARGENTINA));
                     }
                     break;
                 case "listo":
                     if (ticket.getFechaListo() == null) {
-                        ticket.setFechaListo(LocalDate.now(ZoneId.of("America/Argentina/Buenos_Aires")));
+                        ticket.setFechaListo(LocalDate.now(ZONA_ARGENTINA));
                     }
                     break;
             }
@@ -122,21 +506,216 @@ public class TicketService {
         }
 
         TicketModel actualizado = ticketRepository.save(ticket);
+        if (huboCambio) {
+            invalidarCliente(actualizado);
+            eventos.publishEvent(TicketEvento.de(TicketEvento.ACTUALIZADO, actualizado));
+        }
+        if (!String.valueOf(estadoAnterior).equalsIgnoreCase(String.valueOf(actualizado.getEstado()))) {
+            registrarTransicion(actualizado.getId(), actualizado.getPrioridad(), estadoAnterior, actualizado.getEstado(),
+                    estadoDesdeAnterior, ahora);
+        }
 
-        // Enviar email si hay cambios y cliente quiere notificaciones
+        // Encolar email si hay cambios y cliente quiere notificaciones (lo envía EmailOutboxDispatcher)
         if (huboCambio && Boolean.TRUE.equals(actualizado.getNotificarCliente())) {
-            try {
-                String asunto = "🔔 Actualización de tu ticket #" + actualizado.getId();
-                String cuerpoHtml = emailService.construirCuerpoEmail(actualizado);
-                emailService.enviarEmailHtml(actualizado.getClienteEmail(), asunto, cuerpoHtml);
-            } catch (Exception e) {
-                System.err.println("⚠️ No se pudo enviar el correo: " + e.getMessage());
-            }
+            encolarAviso(actualizado);
         }
 
         return actualizado;
     }
 
+    /**
+     * 🩹 Edición parcial (PATCH): solo los campos no nulos de `cambios`, con la versión obligatoria.
+     *
+     * Camino rápido, sin leer el ticket: un único UPDATE ... SET <campos>, version = version + 1
+     * WHERE id = ? AND version = ? AND el cliente no pidió avisos. Si el ticket quiere avisos, si
+     * cambia el estado (estadísticas, fechas de etapa) o si el UPDATE no tocó ninguna fila, se usa
+     * actualizarTicket, que carga el ticket y resuelve avisos, 404 y 409.
+     */
+    @Transactional
+    public TicketVersionRest parchearTicket(Long id, TicketModel cambios) {
+        if (cambios.getVersion() == null) {
+            throw new IllegalArgumentException("Falta la versión del ticket (campo version)");
+        }
+
+        boolean caminoRapido = cambios.getEstado() == null && !Boolean.TRUE.equals(cambios.getNotificarCliente());
+        if (caminoRapido) {
+            // Columna -> valor de los campos que vienen en el PATCH
+            Map<String, Object> campos = new LinkedHashMap<>();
+            if (cambios.getSolucion() != null) {
+                campos.put("solucion", cambios.getSolucion());
+            }
+            if (cambios.getPrecio() != null) {
+                campos.put("precio", cambios.getPrecio());
+            }
+            if (cambios.getPrioridad() != null) {
+                campos.put("prioridad", cambios.getPrioridad());
+            }
+            if (cambios.getDescripcionProblema() != null) {
+                campos.put("descripcion_problema", cambios.getDescripcionProblema());
+            }
+            if (cambios.getNotificarCliente() != null) {
+                campos.put("notificar_cliente", cambios.getNotificarCliente());
+            }
+
+            if (!campos.isEmpty()) {
+                // SQL nativo y no CriteriaUpdate: un UPDATE JPQL/Criteria vacía la región "tickets"
+                // entera de la caché de segundo nivel (ver TicketRepository.SIN_REGION)
+                StringBuilder sql = new StringBuilder("UPDATE ticket_model SET version = version + 1");
+                campos.keySet().forEach(columna -> sql.append(", ").append(columna).append(" = :").append(columna));
+                sql.append(" WHERE id = :id AND version = :version")
+                        .append(" AND (notificar_cliente IS NULL OR notificar_cliente = FALSE)");
+
+                Query update = entityManager.createNativeQuery(sql.toString())
+                        .setHint(AvailableHints.HINT_NATIVE_SPACES, TicketRepository.SIN_REGION)
+                        .setParameter("id", id)
+                        .setParameter("version", cambios.getVersion());
+                campos.forEach(update::setParameter);
+
+                if (update.executeUpdate() == 1) {
+                    sacarDeSegundoNivel(List.of(id));
+                    String cliente = ticketRepository.findClienteEmailNormalizadoById(id).orElse(null);
+                    if (cliente != null) {
+                        ticketsPorCliente.evict(cliente);
+                    }
+                    // Sin el ticket cargado: el panel lo vuelve a pedir por id
+                    eventos.publishEvent(new TicketEvento(TicketEvento.ACTUALIZADO, id, null, cliente));
+                    return new TicketVersionRest(id, cambios.getVersion() + 1);
+                }
+            }
+        }
+
+        // Camino completo: avisos, cambio de estado, o ninguna fila (no existe / otra versión)
+        TicketModel actualizado = actualizarTicket(id, cambios);
+        entityManager.flush(); // Para devolver la versión ya incrementada
+        return new TicketVersionRest(actualizado.getId(), actualizado.getVersion());
+    }
+
+    /**
+     * 🔁 Pasa muchos tickets al mismo estado con un UPDATE por bloque de IDs (no uno por ticket).
+     * Completa las fechas de etapa igual que actualizarTicket y encola el aviso de los
+     * tickets cuyo cliente pidió notificaciones.
+     */
+    @Transactional
+    public TicketMasivoRest actualizarEstadoMasivo(List<Long> ids, String estado) {
+        if (estado == null || estado.isBlank()) {
+            throw new IllegalArgumentException("Falta el estado");
+        }
+        if (ids == null || ids.isEmpty()) {
+            return new TicketMasivoRest(0, 0);
+        }
+
+        LocalDate hoy = LocalDate.now(ZONA_ARGENTINA);
+        Instant ahora = Instant.now();
+        String etapa = estado.toLowerCase();
+        List<Long> unicos = ids.stream().distinct().toList();
+        int actualizados = 0;
+        int notificados = 0;
+
+        for (int desde = 0; desde < unicos.size(); desde += ESTADO_MASIVO_BLOQUE) {
+            List<Long> bloque = unicos.subList(desde, Math.min(desde + ESTADO_MASIVO_BLOQUE, unicos.size()));
+
+            // Solo los que realmente cambian de estado (filas bloqueadas hasta el commit)
+            List<TicketEstadoResumen> aCambiar = ticketRepository.findResumenByIdInOrderByIdAsc(bloque).stream()
+                    .filter(previo -> !estado.equalsIgnoreCase(previo.getEstado()))
+                    .toList();
+            if (aCambiar.isEmpty()) {
+                continue;
+            }
+
+            List<Long> cambiados = aCambiar.stream().map(TicketEstadoResumen::getId).toList();
+            int filas = ticketRepository.actualizarEstado(cambiados, estado, ahora,
+                    etapa.equals("pendiente") ? hoy : null,
+                    etapa.equals("en reparación") ? hoy : null,
+                    etapa.equals("listo") ? hoy : null);
+            // Con las filas bloqueadas no debería pasar; si pasa, el historial quedaría mal: se revierte todo
+            if (filas != cambiados.size()) {
+                throw new IllegalStateException("Cambio de estado masivo: se esperaban " + cambiados.size()
+                        + " tickets y se actualizaron " + filas);
+            }
+            actualizados += filas;
+            sacarDeSegundoNivel(cambiados);
+
+            List<Long> aNotificar = new ArrayList<>();
+            for (TicketEstadoResumen previo : aCambiar) {
+                registrarTransicion(previo.getId(), previo.getPrioridad(), previo.getEstado(), estado,
+                        previo.getEstadoDesde(), ahora);
+                if (previo.getClienteEmailNormalizado() != null) {
+                    ticketsPorCliente.evict(previo.getClienteEmailNormalizado());
+                }
+                eventos.publishEvent(new TicketEvento(TicketEvento.ACTUALIZADO, previo.getId(), null,
+                        previo.getClienteEmailNormalizado()));
+                if (Boolean.TRUE.equals(previo.getNotificarCliente())) {
+                    aNotificar.add(previo.getId());
+                }
+            }
+
+            // El email necesita el ticket completo (solución, precio): se leen ya actualizados
+            if (!aNotificar.isEmpty()) {
+                for (TicketModel ticket : ticketRepository.findAllById(aNotificar)) {
+                    encolarAviso(ticket);
+                    notificados++;
+                }
+            }
+        }
+        return new TicketMasivoRest(actualizados, notificados);
+    }
+
+    // 🗄️ Tickets cambiados con UPDATE directo: fuera de la caché de segundo nivel ya, para que
+    // esta transacción no lea la versión vieja. InvalidacionEntreReplicas los vuelve a sacar
+    // después del commit (por si otra transacción los cargó mientras tanto).
+    private void sacarDeSegundoNivel(List<Long> ids) {
+        jakarta.persistence.Cache segundoNivel = entityManager.getEntityManagerFactory().getCache();
+        ids.forEach(id -> segundoNivel.evict(TicketModel.class, id));
+    }
+
+    // 📊 Cambio de estado: métrica de transiciones y fila del historial (en la misma transacción).
+    // Los contadores del dashboard (TicketStatsCache) y TicketSlaStats se actualizan cuando se confirma.
+    private void registrarTransicion(Long ticketId, String prioridad, String desde, String hacia,
+                                     Instant estadoDesde, Instant ahora) {
+        eventos.publishEvent(new TicketStatsCache.Delta().cambioEstado(desde, hacia));
+        meterRegistry.counter("tickets.transiciones",
+                "desde", etiquetaEstado(desde),
+                "hacia", etiquetaEstado(hacia)).increment();
+
+        Long segundos = estadoDesde == null ? null : Duration.between(estadoDesde, ahora).toSeconds();
+        TicketTransicionEntity transicion = transicionRepository.save(
+                new TicketTransicionEntity(ticketId, desde, hacia, ahora, actorActual(), prioridad, segundos));
+        eventos.publishEvent(transicion);
+    }
+
+    // 🏷️ El estado es texto libre: en la métrica solo los conocidos, así no aparece una serie
+    // nueva en Prometheus por cada estado escrito a mano ("resuelto" cuenta como listo, igual
+    // que en las estadísticas)
+    private static String etiquetaEstado(String estado) {
+        return switch (estado == null ? "" : estado.strip().toLowerCase()) {
+            case "pendiente" -> "pendiente";
+            case "en reparación" -> "en reparación";
+            case "listo", "resuelto" -> "listo";
+            default -> "otro";
+        };
+    }
+
+    // 👤 Quién hace el cambio: el email del JWT, o "sistema" si no hay usuario (tareas internas)
+    private static String actorActual() {
+        Authentication usuario = SecurityContextHolder.getContext().getAuthentication();
+        boolean anonimo = usuario == null || !usuario.isAuthenticated() || usuario instanceof AnonymousAuthenticationToken;
+        return anonimo ? "sistema" : usuario.getName();
+    }
+
+    /**
+     * 🕓 Historial de cambios de estado de un ticket, del más viejo al más nuevo.
+     */
+    public List<TicketTransicionEntity> historial(Long id) {
+        return transicionRepository.findByTicketIdOrderByInstanteAsc(id);
+    }
+
+    // 📮 Aviso al cliente: se guarda en la bandeja de salida (lo envía EmailOutboxDispatcher)
+    private void encolarAviso(TicketModel ticket) {
+        String asunto = "🔔 Actualización de tu ticket #" + ticket.getId();
+        String cuerpoHtml = emailService.construirCuerpoEmail(ticket);
+        emailOutbox.encolar(ticket.getClienteEmail(), asunto, cuerpoHtml);
+    }
+
     // ------------------- Notificaciones -------------------
 
     public String activarNotificacion(Long id) {
@@ -147,21 +726,34 @@ public class TicketService {
         TicketModel ticket = ticketOpt.get();
         ticket.setNotificarCliente(true);
         ticketRepository.save(ticket);
+        invalidarCliente(ticket);
+        eventos.publishEvent(TicketEvento.de(TicketEvento.ACTUALIZADO, ticket));
         return "✅ Notificaciones activadas para este ticket";
     }
 
     // ------------------- Estadísticas -------------------
 
     /**
-     * 🔹 Estadísticas generales para las tarjetas
+     * 🔹 Estadísticas generales para las tarjetas.
+     * Se responden desde los contadores en memoria (TicketStatsCache), sin consultar la base.
      */
     public Map<String, Long> obtenerEstadisticas() {
-        List<TicketModel> tickets = ticketRepository.findAll();
-
-        long total = tickets.size();
-        long pendientes = tickets.stream().filter(t -> "pendiente".equalsIgnoreCase(t.getEstado())).count();
-        long reparacion = tickets.stream().filter(t -> "en reparación".equalsIgnoreCase(t.getEstado())).count();
-        long resueltos = tickets.stream().filter(t -> "resuelto".equalsIgnoreCase(t.getEstado()) || "listo".equalsIgnoreCase(t.getEstado())).count();
+        long total = 0;
+        long pendientes = 0;
+        long reparacion = 0;
+        long resueltos = 0;
+
+        for (Map.Entry<String, Long> fila : statsCache.conteoPorEstado().entrySet()) {
+            long cantidad = fila.getValue();
+            total += cantidad;
+
+            switch (fila.getKey()) {
+                case "pendiente" -> pendientes += cantidad;
+                case "en reparación" -> reparacion += cantidad;
+                case "resuelto", "listo" -> resueltos += cantidad;
+                default -> { } // Otros estados (o sin estado) solo suman al total
+            }
+        }
 
         Map<String, Long> stats = new HashMap<>();
         stats.put("total", total);
@@ -173,46 +765,32 @@ public class TicketService {
     }
 
     /**
-     * 🔹 Tickets por mes (para el gráfico)
+     * 🔹 Tickets por mes (para el gráfico).
+     * Ventana de los últimos 12 meses (incluido el actual), separada por año y mes
+     * para no mezclar tickets del mismo mes de años distintos. Los conteos salen
+     * de TicketStatsCache, sin consultar la base.
      */
     public List<Map<String, Object>> obtenerTicketsPorMes() {
-    List<TicketModel> tickets = ticketRepository.findAll();
-    
-    // 🔹 Tomamos el mes actual y creamos 12 meses consecutivos
-    int mesActual = LocalDate.now().getMonthValue(); // 1 = Enero, 8 = Agosto
-    int yearActual = LocalDate.now().getYear();
-
-    Map<String, Long> meses = new LinkedHashMap<>();
-
-    for (int i = 0; i < 12; i++) {
-        // Calculamos mes y año (si supera diciembre, aumentamos año)
-        int mes = (mesActual + i - 1) % 12 + 1;
-        int year = yearActual + ((mesActual + i - 1) / 12);
-
-        String nombreMes = LocalDate.of(year, mes, 1)
-                .getMonth()
-                .getDisplayName(TextStyle.SHORT, new Locale("es"));
-        meses.put(nombreMes, 0L);
-    }
+        YearMonth mesActual = YearMonth.now(ZONA_ARGENTINA);
+        YearMonth primerMes = mesActual.minusMonths(11);
+
+        // 🔹 Armamos los 12 meses en orden cronológico con su conteo
+        Map<YearMonth, Long> meses = new LinkedHashMap<>();
+        for (int i = 0; i < 12; i++) {
+            YearMonth mes = primerMes.plusMonths(i);
+            meses.put(mes, statsCache.conteoMes(mes));
+        }
 
-    // 🔹 Contamos tickets por mes (solo del último año o hasta hoy)
-    tickets.forEach(t -> {
-        LocalDate fecha = t.getFechaCreacion();
-        String nombreMes = fecha.getMonth().getDisplayName(TextStyle.SHORT, new Locale("es"));
-        if (meses.containsKey(nombreMes)) {
-            meses.put(nombreMes, meses.get(nombreMes) + 1);
+        // 🔹 Convertimos a lista para React
+        List<Map<String, Object>> result = new ArrayList<>();
+        for (Map.Entry<YearMonth, Long> entry : meses.entrySet()) {
+            Map<String, Object> mapa = new HashMap<>();
+            mapa.put("mes", entry.getKey().getMonth().getDisplayName(TextStyle.SHORT, LOCALE_ES));
+            mapa.put("anio", entry.getKey().getYear());
+            mapa.put("tickets", entry.getValue());
+            result.add(mapa);
         }
-    });
 
-    // 🔹 Convertimos a lista para React
-    List<Map<String, Object>> result = new ArrayList<>();
-    for (Map.Entry<String, Long> entry : meses.entrySet()) {
-        Map<String, Object> mapa = new HashMap<>();
-        mapa.put("mes", entry.getKey());
-        mapa.put("tickets", entry.getValue());
-        result.add(mapa);
+        return result;
     }
-
-    return result;
 }
-}
\ No newline at end of file
@@ -0,0 +1,180 @@
+package com.example.java.proyect.service;
+
+import java.time.Instant;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+import org.HdrHistogram.Histogram;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.example.java.proyect.TicketTransicionRepository;
+import com.example.java.proyect.entities.TicketTransicionEntity;
+import com.example.java.proyect.models.responses.TicketSlaRest;
+import com.example.java.proyect.share.dto.TransicionDuracion;
+
+/**
+ * ⏱️ Tiempo que pasan los tickets en cada estado, por mes y prioridad (GET /tickets/sla).
+ *
+ * - Al arrancar se lee una vez el historial de los últimos meses (ticket_transicion).
+ * - Después, cada cambio de estado confirmado en esta réplica suma su duración acá: el
+ *   endpoint responde desde memoria.
+ * - Cada tanto se leen solo las transiciones nuevas (instante posterior a la lectura anterior,
+ *   menos un margen): así se suman las de otras réplicas, que acá no llegan como evento.
+ *   El margen cubre transacciones que confirman tarde y relojes corridos; las transiciones que
+ *   caen dentro del margen se recuerdan por id para no sumarlas dos veces.
+ * - Cada grupo guarda un histograma (HdrHistogram, 2 dígitos de precisión) del que salen
+ *   la mediana y el percentil 95 sin guardar cada duración.
+ */
+@Component
+public class TicketSlaStats {
+
+    private static final ZoneId ZONA_ARGENTINA = ZoneId.of("America/Argentina/Buenos_Aires");
+
+    // Meses que se mantienen en memoria (como el gráfico del dashboard)
+    private static final int MESES = 12;
+
+    // Duración máxima registrable: 2 años en segundos (las mayores se cuentan como 2 años)
+    private static final long MAX_SEGUNDOS = 2L * 366 * 24 * 3600;
+
+    private static final double SEGUNDOS_POR_HORA = 3600.0;
+
+    private record Clave(YearMonth mes, String prioridad, String estado) { }
+
+    /**
+     * Cantidad, suma e histograma de un grupo. Se sincroniza por grupo: los cambios
+     * de estado de grupos distintos no compiten entre sí.
+     */
+    private static final class Acumulado {
+        private final Histogram histograma = new Histogram(MAX_SEGUNDOS, 2);
+        private long cantidad;
+        private double sumaSegundos;
+
+        synchronized void registrar(long segundos) {
+            long valor = Math.min(Math.max(segundos, 0), MAX_SEGUNDOS);
+            histograma.recordValue(valor);
+            cantidad++;
+            sumaSegundos += valor;
+        }
+
+        synchronized TicketSlaRest resumen(Clave clave) {
+            return new TicketSlaRest(clave.mes().getYear(), clave.mes().getMonthValue(), clave.prioridad(), clave.estado(),
+                    cantidad, sumaSegundos / cantidad / SEGUNDOS_POR_HORA,
+                    histograma.getValueAtPercentile(50) / SEGUNDOS_POR_HORA,
+                    histograma.getValueAtPercentile(95) / SEGUNDOS_POR_HORA);
+        }
+    }
+
+    private final TicketTransicionRepository transicionRepository;
+    private final long margenMs;
+
+    private final Map<Clave, Acumulado> acumulados = new ConcurrentHashMap<>();
+
+    // Ids ya sumados cuyo instante cae dentro del margen (id → instante), para no contarlos dos veces
+    private final Map<Long, Instant> recientes = new ConcurrentHashMap<>();
+
+    // Cuándo empezó la última lectura de ticket_transicion (null hasta la carga inicial)
+    private volatile Instant ultimaLectura;
+
+    public TicketSlaStats(TicketTransicionRepository transicionRepository,
+                          @Value("${tickets.sla.margen-ms:120000}") long margenMs) {
+        this.transicionRepository = transicionRepository;
+        this.margenMs = margenMs;
+    }
+
+    /**
+     * 🚀 Carga inicial al terminar de arrancar: un recorrido del historial de los últimos meses.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void inicializar() {
+        leer(primerMes().atDay(1).atStartOfDay(ZONA_ARGENTINA).toInstant());
+    }
+
+    /**
+     * 🔁 Suma las transiciones confirmadas desde la lectura anterior (usa idx_ticket_transicion_instante).
+     */
+    @Scheduled(fixedDelayString = "${tickets.sla.lectura-ms:60000}",
+               initialDelayString = "${tickets.sla.lectura-ms:60000}")
+    @Transactional(readOnly = true)
+    public void leerNuevas() {
+        Instant anterior = ultimaLectura;
+        if (anterior != null) {
+            leer(anterior.minusMillis(margenMs));
+        }
+    }
+
+    private void leer(Instant desde) {
+        Instant inicio = Instant.now();
+        Instant corte = inicio.minusMillis(margenMs); // La próxima lectura arranca acá
+        try (Stream<TransicionDuracion> filas = transicionRepository.streamDuracionesDesde(desde)) {
+            filas.forEach(fila -> sumarUnaVez(fila.getId(), fila.getInstante(), fila.getPrioridad(),
+                    fila.getDesde(), fila.getSegundosEnEstado(), corte));
+        }
+        recientes.values().removeIf(instante -> instante.isBefore(corte)); // Ya no vuelven a leerse
+        ultimaLectura = inicio;
+    }
+
+    /**
+     * 📣 Cambio de estado confirmado en esta réplica (lo publica TicketService): suma su duración al grupo.
+     */
+    @TransactionalEventListener
+    public void registrar(TicketTransicionEntity transicion) {
+        sumarUnaVez(transicion.getId(), transicion.getInstante(), transicion.getPrioridad(), transicion.getDesde(),
+                transicion.getSegundosEnEstado(), null);
+    }
+
+    /**
+     * 📊 Grupos de los últimos "meses" meses (1 a 12), del más reciente al más viejo.
+     */
+    public List<TicketSlaRest> resumen(int meses) {
+        YearMonth desde = YearMonth.now(ZONA_ARGENTINA).minusMonths(Math.min(Math.max(meses, 1), MESES) - 1L);
+        acumulados.keySet().removeIf(clave -> clave.mes().isBefore(primerMes())); // Meses que salieron de la ventana
+
+        List<TicketSlaRest> resultado = new ArrayList<>();
+        acumulados.forEach((clave, acumulado) -> {
+            if (!clave.mes().isBefore(desde)) {
+                resultado.add(acumulado.resumen(clave));
+            }
+        });
+        resultado.sort(Comparator.comparing(TicketSlaRest::getAnio).thenComparing(TicketSlaRest::getMes).reversed()
+                .thenComparing(TicketSlaRest::getPrioridad)
+                .thenComparing(TicketSlaRest::getEstado));
+        return resultado;
+    }
+
+    // Las filas anteriores al "corte" ya no pueden volver a leerse: se suman sin recordar el id
+    private void sumarUnaVez(Long id, Instant instante, String prioridad, String estado, Long segundos, Instant corte) {
+        if (segundos == null || estado == null) {
+            return; // No se sabe cuánto estuvo en el estado anterior
+        }
+        if ((corte == null || !instante.isBefore(corte)) && recientes.putIfAbsent(id, instante) != null) {
+            return; // Ya sumada (por el evento local o por una lectura anterior)
+        }
+        YearMonth mes = YearMonth.from(instante.atZone(ZONA_ARGENTINA));
+        if (mes.isBefore(primerMes())) {
+            return;
+        }
+        Clave clave = new Clave(mes, normalizar(prioridad), normalizar(estado));
+        acumulados.computeIfAbsent(clave, c -> new Acumulado()).registrar(segundos);
+    }
+
+    private static YearMonth primerMes() {
+        return YearMonth.now(ZONA_ARGENTINA).minusMonths(MESES - 1L);
+    }
+
+    private static String normalizar(String valor) {
+        return valor == null ? "" : valor.trim().toLowerCase();
+    }
+}
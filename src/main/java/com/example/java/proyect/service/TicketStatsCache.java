@@ -0,0 +1,202 @@
+package com.example.java.proyect.service;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.example.java.proyect.TicketRepository;
+import com.example.java.proyect.share.dto.EstadoConteo;
+import com.example.java.proyect.share.dto.MesConteo;
+
+/**
+ * 📊 Contadores de tickets en memoria para el dashboard.
+ *
+ * - Se cargan una sola vez al arrancar (con las consultas GROUP BY del repositorio).
+ * - TicketService les aplica deltas al crear, cambiar de estado o eliminar tickets
+ *   (después del commit, ver Delta).
+ * - /tickets/estadisticas y /tickets/por-mes se responden desde acá, sin ir a MySQL.
+ * - Un job periódico los vuelve a calcular desde la base para corregir desvíos
+ *   (por ejemplo, cambios hechos a mano en la base o en otra réplica). No reemplaza los
+ *   contadores: les suma la diferencia, así no se pierden los deltas que llegan mientras tanto.
+ *
+ * Se usan LongAdder para que las actualizaciones concurrentes no compitan por un lock.
+ */
+@Component
+public class TicketStatsCache {
+
+    private static final ZoneId ZONA_ARGENTINA = ZoneId.of("America/Argentina/Buenos_Aires");
+
+    // Clave usada para los tickets que no tienen estado asignado
+    private static final String SIN_ESTADO = "";
+
+    private final TicketRepository ticketRepository;
+    private final TicketCambios ticketCambios;
+
+    private final Map<String, LongAdder> porEstado = new ConcurrentHashMap<>();
+    private final Map<YearMonth, LongAdder> porMes = new ConcurrentHashMap<>();
+
+    public TicketStatsCache(TicketRepository ticketRepository, TicketCambios ticketCambios) {
+        this.ticketRepository = ticketRepository;
+        this.ticketCambios = ticketCambios;
+    }
+
+    // ------------------- Carga y reconciliación -------------------
+
+    /**
+     * 🚀 Carga inicial al terminar de arrancar la aplicación.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void inicializar() {
+        reconciliar();
+    }
+
+    /**
+     * 🔁 Recalcula los contadores desde la base y corrige el desvío acumulado.
+     *
+     * Se copian los contadores justo antes de cada consulta y se les suma (base - copia).
+     * Un delta que se aplica mientras corre la consulta es de un commit que la consulta no ve:
+     * queda en los contadores y la corrección no lo toca.
+     */
+    @Scheduled(fixedDelayString = "${tickets.estadisticas.reconciliacion-ms:300000}",
+               initialDelayString = "${tickets.estadisticas.reconciliacion-ms:300000}")
+    public void reconciliar() {
+        Map<String, Long> antesPorEstado = copia(porEstado);
+        Map<String, Long> enBasePorEstado = new HashMap<>();
+        for (EstadoConteo fila : ticketRepository.contarPorEstado()) {
+            enBasePorEstado.merge(clave(fila.getEstado()), fila.getTotal(), Long::sum);
+        }
+        boolean corregido = corregir(porEstado, antesPorEstado, enBasePorEstado);
+
+        // Solo hace falta la ventana que muestra el gráfico (últimos 12 meses)
+        YearMonth mesActual = YearMonth.now(ZONA_ARGENTINA);
+        YearMonth primerMes = mesActual.minusMonths(11);
+        porMes.keySet().removeIf(mes -> mes.isBefore(primerMes));
+        Map<YearMonth, Long> antesPorMes = copia(porMes);
+        Map<YearMonth, Long> enBasePorMes = new HashMap<>();
+        for (MesConteo fila : ticketRepository.contarPorMes(primerMes.atDay(1), mesActual.plusMonths(1).atDay(1))) {
+            enBasePorMes.merge(YearMonth.of(fila.getAnio(), fila.getMes()), fila.getTotal(), Long::sum);
+        }
+        corregido |= corregir(porMes, antesPorMes, enBasePorMes);
+
+        if (corregido) {
+            ticketCambios.registrarCorreccion(); // Cambiaron los números: nuevo ETag del dashboard
+        }
+    }
+
+    // Suma a cada contador (base - copia); true si hubo algún desvío
+    private static <K> boolean corregir(Map<K, LongAdder> contadores, Map<K, Long> antes, Map<K, Long> enBase) {
+        Set<K> claves = new HashSet<>(antes.keySet());
+        claves.addAll(enBase.keySet());
+        boolean corregido = false;
+        for (K clave : claves) {
+            long diferencia = enBase.getOrDefault(clave, 0L) - antes.getOrDefault(clave, 0L);
+            if (diferencia != 0) {
+                contador(contadores, clave).add(diferencia);
+                corregido = true;
+            }
+        }
+        return corregido;
+    }
+
+    // ------------------- Deltas -------------------
+
+    /**
+     * 📦 Cambios a los contadores hechos dentro de una transacción.
+     * TicketService los publica como evento y se aplican recién cuando la transacción se
+     * confirma: si se revierte (ej. una importación con una fila inválida) no se suma nada.
+     */
+    public static final class Delta {
+        private final Map<String, Long> porEstado = new HashMap<>();
+        private final Map<YearMonth, Long> porMes = new HashMap<>();
+
+        /**
+         * ➕ Un ticket nuevo.
+         */
+        public Delta alta(String estado, LocalDate fechaCreacion) {
+            porEstado.merge(clave(estado), 1L, Long::sum);
+            if (fechaCreacion != null) {
+                porMes.merge(YearMonth.from(fechaCreacion), 1L, Long::sum);
+            }
+            return this;
+        }
+
+        /**
+         * 🔄 Un ticket que pasa de un estado a otro.
+         */
+        public Delta cambioEstado(String estadoAnterior, String estadoNuevo) {
+            String desde = clave(estadoAnterior);
+            String hacia = clave(estadoNuevo);
+            if (!desde.equals(hacia)) {
+                porEstado.merge(desde, -1L, Long::sum);
+                porEstado.merge(hacia, 1L, Long::sum);
+            }
+            return this;
+        }
+
+        /**
+         * ➖ Un ticket eliminado.
+         */
+        public Delta baja(String estado, LocalDate fechaCreacion) {
+            porEstado.merge(clave(estado), -1L, Long::sum);
+            if (fechaCreacion != null) {
+                porMes.merge(YearMonth.from(fechaCreacion), -1L, Long::sum);
+            }
+            return this;
+        }
+    }
+
+    /**
+     * 📣 Aplica un Delta confirmado (sin transacción, en el momento).
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void aplicar(Delta delta) {
+        delta.porEstado.forEach((estado, cantidad) -> contador(porEstado, estado).add(cantidad));
+        delta.porMes.forEach((mes, cantidad) -> contador(porMes, mes).add(cantidad));
+    }
+
+    // ------------------- Lecturas -------------------
+
+    /**
+     * 📋 Copia de los conteos por estado (estado en minúsculas → cantidad).
+     * Los tickets sin estado aparecen con la clave "".
+     */
+    public Map<String, Long> conteoPorEstado() {
+        return copia(porEstado);
+    }
+
+    /**
+     * 📅 Cantidad de tickets creados en el mes indicado.
+     */
+    public long conteoMes(YearMonth mes) {
+        LongAdder contador = porMes.get(mes);
+        return contador != null ? contador.sum() : 0L;
+    }
+
+    // ------------------- Helpers -------------------
+
+    private static String clave(String estado) {
+        return estado != null ? estado.toLowerCase() : SIN_ESTADO;
+    }
+
+    private static <K> Map<K, Long> copia(Map<K, LongAdder> contadores) {
+        Map<K, Long> copia = new HashMap<>();
+        contadores.forEach((clave, contador) -> copia.put(clave, contador.sum()));
+        return copia;
+    }
+
+    private static <K> LongAdder contador(Map<K, LongAdder> mapa, K clave) {
+        return mapa.computeIfAbsent(clave, k -> new LongAdder());
+    }
+}
@@ -17,31 +17,57 @@
 package com.example.java.proyect.service;
 import java.util.ArrayList;
 import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import com.example.java.proyect.UserRepository;
+import com.example.java.proyect.config.CacheConfig;
 import com.example.java.proyect.entities.UserEntity;
+import com.example.java.proyect.models.requests.TicketModel;
 import com.example.java.proyect.share.dto.UserDto;
+import com.example.java.proyect.share.dto.UsuarioResumen;
+
+import jakarta.annotation.PreDestroy;
 
 // Anotación que marca esta clase como un servicio de Spring
 @Service
 public class UserService implements UserServiceInterface, UserDetailsService {
 
+    private static final Logger log = LoggerFactory.getLogger(UserService.class);
+
     // Inyección del repositorio que accede a los datos de los usuarios
     @Autowired
     UserRepository userRepository;
 
-    // Inyección del codificador de contraseñas para encriptarlas (usando BCrypt)
+    // Encripta contraseñas con BCrypt en un pool acotado (no en el hilo de la petición)
     @Autowired
-    BCryptPasswordEncoder bCryptPasswordEncoder;
+    PasswordHashingService passwordHashing;
+
+    // Caché de usuarios por email (solo datos públicos, nunca la contraseña)
+    private final Cache usuariosPorEmail;
+
+    // Guardado de hashes re-cifrados: fuera del pool de BCrypt y del hilo de la petición
+    private final TransactionTemplate transaccion;
+    private final ExecutorService guardadoDeHashes = Executors.newVirtualThreadPerTaskExecutor();
+
+    public UserService(CacheManager cacheManager, PlatformTransactionManager transactionManager) {
+        this.usuariosPorEmail = cacheManager.getCache(CacheConfig.USUARIOS_POR_EMAIL);
+        this.transaccion = new TransactionTemplate(transactionManager);
+    }
 
     // Método que crea un nuevo usuario en la base de datos
     @Override
@@ -57,7 +83,7 @@ public class UserService implements UserServiceInterface, UserDetailsService {
         BeanUtils.copyProperties(user, userEntity);
 
         // Encriptar la contraseña con BCrypt y asignarla a la entidad
-        userEntity.setEncryptedPassword(bCryptPasswordEncoder.encode(user.getPassword()));
+        userEntity.setEncryptedPassword(passwordHashing.cifrar(user.getPassword()));
 
         // Asignar rol fijo por defecto para todo usuario nuevo: "ROLE_CLIENTE"
         // Esto es fundamental para que el campo no quede nulo y se guarde correctamente
@@ -66,6 +92,9 @@ public class UserService implements UserServiceInterface, UserDetailsService {
         // Guardar la entidad en la base de datos y obtener la versión almacenada
         UserEntity storedUserDetails = userRepository.save(userEntity);
 
+        // Si alguien consultó este email antes de que existiera, que no quede nada viejo en caché
+        usuariosPorEmail.evict(TicketModel.normalizarEmail(storedUserDetails.getEmail()));
+
         // Crear un nuevo DTO para devolver como respuesta al controlador
         UserDto userToReturn = new UserDto();
 
@@ -76,6 +105,32 @@ public class UserService implements UserServiceInterface, UserDetailsService {
         return userToReturn;
     }
 
+    /**
+     * 🔁 Re-cifra el hash con la fuerza actual (pool de BCrypt) y lo guarda en un hilo aparte.
+     * Relee el usuario y solo lo cambia si sigue teniendo el mismo hash: si mientras tanto
+     * cambió la contraseña, no se pisa. Los errores quedan en el log (el login ya respondió).
+     */
+    @Override
+    public void actualizarHashSiCorresponde(Long id, String password, String hashActual) {
+        passwordHashing.recifrarSiCorresponde(password, hashActual)
+                .thenAcceptAsync(nuevo -> nuevo.ifPresent(hash -> guardarHash(id, hashActual, hash)), guardadoDeHashes)
+                .exceptionally(error -> {
+                    log.warn("⚠️ No se pudo actualizar el hash del usuario {}", id, error);
+                    return null;
+                });
+    }
+
+    private void guardarHash(Long id, String hashActual, String hashNuevo) {
+        transaccion.executeWithoutResult(estado -> userRepository.findById(id)
+                .filter(usuario -> hashActual.equals(usuario.getEncryptedPassword()))
+                .ifPresent(usuario -> usuario.setEncryptedPassword(hashNuevo)));
+    }
+
+    @PreDestroy
+    public void cerrar() {
+        guardadoDeHashes.shutdown();
+    }
+
     /**
      * Método obligatorio para Spring Security, carga un usuario por email para autenticación
      * @param email Email del usuario que intenta loguearse
@@ -96,16 +151,40 @@ public class UserService implements UserServiceInterface, UserDetailsService {
         // con email, contraseña encriptada, y una lista vacía de roles/authorities
         return new User(userEntity.getEmail(), userEntity.getEncryptedPassword(), new ArrayList<>());
     }
+    /**
+     * Datos públicos de un usuario por email (sin contraseña ni hash).
+     * Se sirven desde la caché usuariosPorEmail; los emails que no existen no se cachean.
+     */
     @Override
     public UserDto getUserByEmail(String email) {
-    UserEntity userEntity = userRepository.findByEmail(email);
-    if (userEntity == null) {
+    UsuarioResumen resumen = buscarResumenPorEmail(email);
+    if (resumen == null) {
         return null;
     }
 
     UserDto userDto = new UserDto();
-    BeanUtils.copyProperties(userEntity, userDto);
+    userDto.setId(resumen.id());
+    userDto.setUserId(resumen.userId());
+    userDto.setFirstName(resumen.firstName());
+    userDto.setLastName(resumen.lastName());
+    userDto.setEmail(resumen.email());
     return userDto;
     }
 
+    /**
+     * 👤 Proyección inmutable del usuario (caché primero, después la base).
+     * La clave de la caché es el email normalizado (TicketModel.normalizarEmail), igual que al invalidar.
+     */
+    public UsuarioResumen buscarResumenPorEmail(String email) {
+        String clave = TicketModel.normalizarEmail(email);
+        UsuarioResumen resumen = usuariosPorEmail.get(clave, UsuarioResumen.class);
+        if (resumen == null) {
+            resumen = userRepository.findResumenByEmail(email);
+            if (resumen != null) {
+                usuariosPorEmail.put(clave, resumen);
+            }
+        }
+        return resumen;
+    }
+
 }
@@ -11,6 +11,9 @@ public interface UserServiceInterface {
     
     // Agregá este método para buscar usuario por email
     UserDto getUserByEmail(String email);
+
+    // Login correcto con un hash de fuerza vieja: lo re-cifra y lo guarda en segundo plano
+    void actualizarHashSiCorresponde(Long id, String password, String hashActual);
 }
 //Hace que el código sea más flexible y mantenible.
 
@@ -0,0 +1,14 @@
+package com.example.java.proyect.share.dto;
+
+/**
+ * Proyección de Spring Data para el conteo de tickets por estado.
+ * Cada fila trae el estado (en minúsculas) y cuántos tickets lo tienen.
+ */
+public interface EstadoConteo {
+
+    // Estado del ticket en minúsculas (pendiente, en reparación, listo, ...)
+    String getEstado();
+
+    // Cantidad de tickets con ese estado
+    Long getTotal();
+}
@@ -0,0 +1,17 @@
+package com.example.java.proyect.share.dto;
+
+/**
+ * Proyección de Spring Data para el conteo de tickets creados por mes.
+ * Cada fila trae el año, el mes (1 = enero) y la cantidad de tickets.
+ */
+public interface MesConteo {
+
+    // Año de creación (ej: 2025)
+    Integer getAnio();
+
+    // Mes de creación (1 = enero, 12 = diciembre)
+    Integer getMes();
+
+    // Cantidad de tickets creados en ese mes
+    Long getTotal();
+}
@@ -0,0 +1,26 @@
+package com.example.java.proyect.share.dto;
+
+import java.time.Instant;
+import java.time.LocalDate;
+
+/**
+ * Proyección de Spring Data con lo mínimo de un ticket para un cambio de estado masivo:
+ * el estado anterior y desde cuándo (estadísticas e historial), el dueño (caché por cliente) y si quiere avisos.
+ * Al no ser entidades, leerlas no agrega nada al contexto de persistencia.
+ */
+public interface TicketEstadoResumen {
+
+    Long getId();
+
+    String getEstado();
+
+    Instant getEstadoDesde();
+
+    String getPrioridad();
+
+    String getClienteEmailNormalizado();
+
+    LocalDate getFechaCreacion();
+
+    Boolean getNotificarCliente();
+}
@@ -0,0 +1,20 @@
+package com.example.java.proyect.share.dto;
+
+import java.time.Instant;
+
+/**
+ * Proyección de Spring Data con lo que necesitan las métricas de tiempo por etapa
+ * (TicketSlaStats) de cada fila de ticket_transicion. No arma entidades.
+ */
+public interface TransicionDuracion {
+
+    Long getId();
+
+    Instant getInstante();
+
+    String getPrioridad();
+
+    String getDesde();
+
+    Long getSegundosEnEstado();
+}
@@ -0,0 +1,15 @@
+package com.example.java.proyect.share.dto;
+
+/**
+ * Proyección inmutable de un usuario SIN la contraseña.
+ * Es lo que se guarda en la caché usuariosPorEmail: sirve para todas las lecturas
+ * que no necesitan el hash (ej: GET /users/email/{email} para la tarjeta del cliente).
+ */
+public record UsuarioResumen(
+        long id,          // ID interno de la base de datos
+        String userId,    // Identificador público (UUID)
+        String firstName,
+        String lastName,
+        String email,
+        String role) {    // ROLE_CLIENTE, ROLE_ADMIN, ...
+}
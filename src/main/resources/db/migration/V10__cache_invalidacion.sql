@@ -0,0 +1,18 @@
+-- =============================================================================
+-- 🗄️ V10 — Canal de invalidación de cachés entre réplicas
+--
+-- Cada réplica anota los tickets y usuarios que cambió; las demás leen las filas
+-- de los últimos segundos y los sacan de sus cachés. Las filas se borran a la hora.
+-- =============================================================================
+
+create table cache_invalidacion (
+    id bigint not null auto_increment,
+    origen varchar(36) not null,
+    entidad varchar(20) not null,
+    entidad_id bigint,
+    clave varchar(255),
+    creado_en datetime(6) not null,
+    primary key (id)
+) engine=InnoDB;
+
+create index idx_cache_invalidacion_creado_en on cache_invalidacion (creado_en);
@@ -0,0 +1,43 @@
+-- =============================================================================
+-- 🗂️ V1 — Esquema inicial (el que venía creando Hibernate con ddl-auto=update)
+--
+-- En una base que ya existe, Flyway NO ejecuta este script: la marca como
+-- versión 1 (spring.flyway.baseline-on-migrate) y aplica solo lo que sigue.
+-- En una base vacía crea todo desde cero.
+-- ⚠️ Solo lo que ya existía en esas bases (ticket_model, users, users_seq):
+--    todo lo nuevo va en una migración propia, si no nunca llega a las bases viejas.
+-- =============================================================================
+
+create table ticket_model (
+    id bigint not null auto_increment,
+    cliente_email varchar(255),
+    descripcion_problema varchar(255),
+    estado varchar(255),
+    solucion varchar(255),
+    fecha_creacion date,
+    precio float(53),
+    prioridad varchar(255),
+    notificar_cliente bit,
+    fecha_pendiente date,
+    fecha_reparacion date,
+    fecha_listo date,
+    primary key (id)
+) engine=InnoDB;
+
+create table users (
+    id bigint not null,
+    user_id varchar(255) not null,
+    first_name varchar(50) not null,
+    last_name varchar(50) not null,
+    email varchar(255) not null,
+    encrypted_password varchar(255) not null,
+    role varchar(255) not null,
+    primary key (id)
+) engine=InnoDB;
+
+-- Generador de IDs de users (@GeneratedValue AUTO usa una tabla en MySQL)
+create table users_seq (
+    next_val bigint
+) engine=InnoDB;
+
+insert into users_seq values (1);
@@ -0,0 +1,8 @@
+-- =============================================================================
+-- 📅 V2 — Índice por fecha de creación
+--
+-- El gráfico del dashboard agrupa por mes los tickets de los últimos 12 meses
+-- (WHERE fecha_creacion >= ? AND fecha_creacion < ?): con el índice solo lee ese rango.
+-- =============================================================================
+
+create index idx_ticket_fecha_creacion on ticket_model (fecha_creacion);
@@ -0,0 +1,22 @@
+-- =============================================================================
+-- 📮 V3 — Bandeja de salida de emails
+--
+-- Los avisos de tickets se guardan acá y se envían en segundo plano con reintentos.
+-- El cuerpo HTML va en MEDIUMTEXT (un TINYTEXT, 255 bytes, no alcanza para un email).
+-- =============================================================================
+
+create table email_outbox (
+    id bigint not null auto_increment,
+    destinatario varchar(255) not null,
+    asunto varchar(255) not null,
+    cuerpo_html mediumtext not null,
+    estado enum ('ENVIADO','ENVIANDO','FALLIDO','PENDIENTE') not null,
+    intentos integer not null,
+    proximo_intento datetime(6) not null,
+    ultimo_error varchar(1000),
+    creado_en datetime(6) not null,
+    enviado_en datetime(6),
+    primary key (id)
+) engine=InnoDB;
+
+create index idx_email_outbox_estado_proximo on email_outbox (estado, proximo_intento);
@@ -0,0 +1,16 @@
+-- =============================================================================
+-- 🔎 V4 — Email del cliente normalizado e indexado
+--
+-- GET /tickets/cliente/{email} buscaba con upper(cliente_email) = upper(?),
+-- que no puede usar índices (recorre toda la tabla). Ahora se guarda el email
+-- en minúsculas y sin espacios en una columna propia, y se busca por igualdad.
+-- =============================================================================
+
+alter table ticket_model add column cliente_email_normalizado varchar(255);
+
+-- Completar los tickets existentes (la app la mantiene al día de acá en adelante)
+update ticket_model
+   set cliente_email_normalizado = lower(trim(cliente_email))
+ where cliente_email is not null;
+
+create index idx_ticket_cliente_email_normalizado on ticket_model (cliente_email_normalizado);
@@ -0,0 +1,10 @@
+-- =============================================================================
+-- 👤 V5 — Email único en users
+--
+-- Login, registro y GET /users/email/{email} buscan por email: sin índice cada
+-- búsqueda recorría toda la tabla. Además evita cuentas duplicadas.
+-- ⚠️ Si la base ya tiene emails repetidos esta migración falla: unificar
+--    esas cuentas a mano y volver a arrancar la app.
+-- =============================================================================
+
+create unique index uk_users_email on users (email);
@@ -0,0 +1,19 @@
+-- =============================================================================
+-- 🔢 V6 — IDs de tickets por bloques (para poder insertar en lotes JDBC)
+--
+-- Hibernate reserva 50 IDs por consulta en id_generadores y los va asignando en
+-- memoria. El contador arranca con margen sobre el ID más alto existente.
+-- Se quita el AUTO_INCREMENT: un INSERT que no pase por la app debe indicar el
+-- ID (si no, podría chocar con un bloque ya reservado).
+-- =============================================================================
+
+create table id_generadores (
+    entidad varchar(255) not null,
+    siguiente bigint,
+    primary key (entidad)
+) engine=InnoDB;
+
+insert into id_generadores (entidad, siguiente)
+select 'ticket_model', coalesce(max(id), 0) + 100 from ticket_model;
+
+alter table ticket_model modify id bigint not null;
@@ -0,0 +1,8 @@
+-- =============================================================================
+-- 🔒 V7 — Versión de cada ticket (bloqueo optimista)
+--
+-- Cada UPDATE pide "WHERE id = ? AND version = ?" y suma 1: si otro admin guardó
+-- antes, no se actualiza ninguna fila y la app responde 409 en vez de pisarlo.
+-- =============================================================================
+
+alter table ticket_model add column version bigint not null default 0;
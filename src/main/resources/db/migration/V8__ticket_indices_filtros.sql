@@ -0,0 +1,12 @@
+-- =============================================================================
+-- 📇 V8 — Índices compuestos para los filtros de GET /tickets
+--
+-- El listado filtra por estado o prioridad y casi siempre acota por fecha
+-- (o las ordena): con la columna de igualdad primero y la fecha después, MySQL
+-- resuelve el filtro y el rango (y el orden por fecha) con el mismo índice.
+-- Para el cliente alcanza idx_ticket_cliente_email_normalizado (pocos tickets cada uno).
+-- =============================================================================
+
+create index idx_ticket_estado_fecha_creacion on ticket_model (estado, fecha_creacion);
+create index idx_ticket_prioridad_fecha_creacion on ticket_model (prioridad, fecha_creacion);
+create index idx_ticket_estado_fecha_listo on ticket_model (estado, fecha_listo);
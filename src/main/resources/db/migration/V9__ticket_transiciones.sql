@@ -0,0 +1,36 @@
+-- =============================================================================
+-- ⏱️ V9 — Historial de cambios de estado y momento de entrada al estado actual
+--
+-- ticket_transicion es de solo inserción: una fila por cambio de estado, con el
+-- tiempo que el ticket pasó en el estado anterior. estado_desde guarda el
+-- instante exacto (las fechas fecha_pendiente/reparacion/listo solo tienen el día).
+-- =============================================================================
+
+alter table ticket_model add column estado_desde datetime(6);
+
+-- Tickets existentes: lo mejor que se sabe es el día en que entraron a su estado
+update ticket_model
+   set estado_desde = coalesce(
+       case lower(estado)
+           when 'pendiente' then fecha_pendiente
+           when 'en reparación' then fecha_reparacion
+           when 'listo' then fecha_listo
+       end,
+       fecha_creacion);
+
+create table ticket_transicion (
+    id bigint not null,
+    ticket_id bigint not null,
+    desde varchar(255),
+    hacia varchar(255) not null,
+    instante datetime(6) not null,
+    actor varchar(255) not null,
+    prioridad varchar(255),
+    segundos_en_estado bigint,
+    primary key (id)
+) engine=InnoDB;
+
+create index idx_ticket_transicion_ticket on ticket_transicion (ticket_id, instante);
+create index idx_ticket_transicion_instante on ticket_transicion (instante);
+
+insert into id_generadores (entidad, siguiente) values ('ticket_transicion', 1);
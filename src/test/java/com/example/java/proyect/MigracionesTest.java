@@ -0,0 +1,66 @@
+package com.example.java.proyect;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+/**
+ * 🗂️ Corre las migraciones de Flyway sobre una base H2 propia (modo MySQL).
+ */
+class MigracionesTest {
+
+	@Test
+	void v4CompletaElEmailNormalizadoDeLosTicketsExistentes() {
+		DriverManagerDataSource dataSource = new DriverManagerDataSource(
+				"jdbc:h2:mem:migraciones;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1", "sa", "");
+		JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+
+		// Base "vieja": solo el esquema inicial, con un ticket cargado antes de la V4
+		Flyway.configure().dataSource(dataSource).target("1").load().migrate();
+		jdbc.update("INSERT INTO ticket_model (cliente_email, estado) VALUES (?, ?)", " Cliente@Test.COM", "pendiente");
+
+		Flyway.configure().dataSource(dataSource).load().migrate();
+
+		assertThat(jdbc.queryForObject("SELECT cliente_email_normalizado FROM ticket_model", String.class))
+				.isEqualTo("cliente@test.com");
+		List<String> indices = jdbc.queryForList(
+				"SELECT index_name FROM information_schema.indexes WHERE table_name = 'ticket_model'", String.class);
+		assertThat(indices).contains("idx_ticket_cliente_email_normalizado", "idx_ticket_estado_fecha_creacion",
+				"idx_ticket_prioridad_fecha_creacion", "idx_ticket_estado_fecha_listo");
+	}
+
+	@Test
+	void unaBaseCreadaAntesDeFlywaySeCompletaConTodasLasMigraciones() {
+		DriverManagerDataSource dataSource = new DriverManagerDataSource(
+				"jdbc:h2:mem:migraciones_base_vieja;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1", "sa", "");
+		JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+
+		// Lo que había creado Hibernate (ddl-auto=update) antes de Flyway: solo estas tres tablas
+		jdbc.execute("create table ticket_model (id bigint not null auto_increment, cliente_email varchar(255), "
+				+ "descripcion_problema varchar(255), estado varchar(255), solucion varchar(255), fecha_creacion date, "
+				+ "precio float(53), prioridad varchar(255), notificar_cliente bit, fecha_pendiente date, "
+				+ "fecha_reparacion date, fecha_listo date, primary key (id))");
+		jdbc.execute("create table users (id bigint not null, user_id varchar(255) not null, first_name varchar(50) not null, "
+				+ "last_name varchar(50) not null, email varchar(255) not null, encrypted_password varchar(255) not null, "
+				+ "role varchar(255) not null, primary key (id))");
+		jdbc.execute("create table users_seq (next_val bigint)");
+		jdbc.update("insert into users_seq values (1)");
+		jdbc.update("INSERT INTO ticket_model (cliente_email, estado) VALUES (?, ?)", "viejo@test.com", "pendiente");
+
+		// Igual que en application.properties: se toma como V1 y se aplica desde la V2
+		Flyway.configure().dataSource(dataSource).baselineOnMigrate(true).baselineVersion("1").load().migrate();
+
+		List<String> tablas = jdbc.queryForList(
+				"SELECT table_name FROM information_schema.tables WHERE table_schema = 'public'", String.class);
+		assertThat(tablas).contains("email_outbox", "id_generadores", "ticket_transicion", "cache_invalidacion");
+		List<String> indices = jdbc.queryForList(
+				"SELECT index_name FROM information_schema.indexes WHERE table_name = 'ticket_model'", String.class);
+		assertThat(indices).contains("idx_ticket_fecha_creacion", "idx_ticket_cliente_email_normalizado");
+		assertThat(jdbc.queryForObject("SELECT count(*) FROM ticket_model", Long.class)).isEqualTo(1L);
+	}
+}
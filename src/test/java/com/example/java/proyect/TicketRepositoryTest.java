@@ -0,0 +1,81 @@
+package com.example.java.proyect;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.example.java.proyect.models.requests.TicketModel;
+import com.example.java.proyect.share.dto.EstadoConteo;
+import com.example.java.proyect.share.dto.MesConteo;
+
+@DataJpaTest
+@ActiveProfiles("test")
+class TicketRepositoryTest {
+
+	@Autowired
+	private TicketRepository ticketRepository;
+
+	@Test
+	void contarPorEstadoAgrupaSinImportarMayusculas() {
+		guardar("Pendiente");
+		guardar("pendiente");
+		guardar("En reparación");
+		guardar("listo");
+
+		Map<String, Long> conteo = ticketRepository.contarPorEstado().stream()
+				.collect(Collectors.toMap(EstadoConteo::getEstado, EstadoConteo::getTotal));
+
+		assertThat(conteo).containsEntry("pendiente", 2L)
+				.containsEntry("en reparación", 1L)
+				.containsEntry("listo", 1L)
+				.hasSize(3);
+	}
+
+	@Test
+	void contarPorMesSeparaMismoMesDeAniosDistintos() {
+		guardar("pendiente", LocalDate.of(2024, 3, 10));
+		guardar("pendiente", LocalDate.of(2025, 3, 2));
+		guardar("pendiente", LocalDate.of(2025, 3, 31));
+		guardar("pendiente", LocalDate.of(2025, 4, 1)); // fuera de la ventana
+
+		List<MesConteo> filas = ticketRepository.contarPorMes(LocalDate.of(2024, 4, 1), LocalDate.of(2025, 4, 1));
+
+		assertThat(filas).hasSize(1);
+		assertThat(filas.get(0).getAnio()).isEqualTo(2025);
+		assertThat(filas.get(0).getMes()).isEqualTo(3);
+		assertThat(filas.get(0).getTotal()).isEqualTo(2L);
+	}
+
+	@Test
+	void buscaPorEmailNormalizado() {
+		TicketModel ticket = new TicketModel();
+		ticket.setClienteEmail("  Juan.Perez@Test.com ");
+		ticketRepository.save(ticket);
+		guardar("pendiente"); // otro cliente
+
+		List<TicketModel> encontrados = ticketRepository.findByClienteEmailNormalizado(
+				TicketModel.normalizarEmail("JUAN.PEREZ@test.com"));
+
+		assertThat(encontrados).extracting(TicketModel::getId).containsExactly(ticket.getId());
+	}
+
+	private void guardar(String estado) {
+		guardar(estado, null);
+	}
+
+	private void guardar(String estado, LocalDate fechaCreacion) {
+		TicketModel ticket = new TicketModel();
+		ticket.setClienteEmail("cliente@test.com");
+		ticket.setEstado(estado);
+		ticket.setFechaCreacion(fechaCreacion);
+		ticketRepository.save(ticket);
+	}
+}
@@ -0,0 +1,74 @@
+package com.example.java.proyect.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.java.proyect.TicketRepository;
+import com.example.java.proyect.models.requests.TicketModel;
+
+@SpringBootTest(properties = {
+		"spring.datasource.hikari.maximum-pool-size=6",
+		"web.admision.conexiones-libres=2" })
+@ActiveProfiles("test")
+class AdmisionConexionesTest {
+
+	@Autowired
+	private AdmisionFilter admisionFilter;
+
+	@Autowired
+	private TicketRepository ticketRepository;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@Test
+	void tantasAltasComoPermisosCruzanBloquesDeIdsSinQuedarseSinConexiones() throws Exception {
+		int permisos = admisionFilter.maxConcurrentes();
+		assertThat(permisos).isEqualTo(4);
+		long antes = ticketRepository.count();
+
+		// Cada hilo es una petición admitida: toma su conexión y, con todas tomadas a la vez,
+		// crea 30 tickets. Entre todos pasan de 50 IDs: alguno pide un bloque nuevo (otra conexión)
+		CyclicBarrier todasConConexion = new CyclicBarrier(permisos);
+		ExecutorService hilos = Executors.newFixedThreadPool(permisos);
+		try {
+			List<Future<?>> altas = new ArrayList<>();
+			for (int h = 0; h < permisos; h++) {
+				altas.add(hilos.submit(() -> transactionTemplate.executeWithoutResult(tx -> {
+					ticketRepository.count();
+					try {
+						todasConConexion.await(10, TimeUnit.SECONDS);
+					} catch (Exception e) {
+						throw new IllegalStateException(e);
+					}
+					for (int i = 0; i < 30; i++) {
+						TicketModel ticket = new TicketModel();
+						ticket.setClienteEmail("bloques@test.com");
+						ticket.setEstado("pendiente");
+						ticketRepository.save(ticket);
+					}
+				})));
+			}
+			for (Future<?> alta : altas) {
+				alta.get(30, TimeUnit.SECONDS); // Sin conexión para el bloque: timeout de Hikari (5 s) y excepción
+			}
+		} finally {
+			hilos.shutdownNow();
+		}
+
+		assertThat(ticketRepository.count()).isEqualTo(antes + 30L * permisos);
+	}
+}
@@ -0,0 +1,61 @@
+package com.example.java.proyect.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+class AdmisionFilterTest {
+
+	@Test
+	void rechazaCon503CuandoNoHayLugar() throws Exception {
+		SimpleMeterRegistry registry = new SimpleMeterRegistry();
+		AdmisionFilter filtro = new AdmisionFilter(1, 50, registry);
+
+		// La primera petición ocupa el único lugar hasta que la liberamos
+		CountDownLatch adentro = new CountDownLatch(1);
+		CountDownLatch liberar = new CountDownLatch(1);
+		HttpServlet lenta = new HttpServlet() {
+			@Override
+			protected void service(HttpServletRequest req, HttpServletResponse res) {
+				adentro.countDown();
+				try {
+					liberar.await(5, TimeUnit.SECONDS);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+		};
+		Thread primera = Thread.ofVirtual().start(() -> {
+			try {
+				filtro.doFilter(new MockHttpServletRequest("GET", "/tickets"), new MockHttpServletResponse(), new MockFilterChain(lenta));
+			} catch (Exception e) {
+				throw new RuntimeException(e);
+			}
+		});
+		assertThat(adentro.await(5, TimeUnit.SECONDS)).isTrue();
+
+		MockHttpServletResponse rechazada = new MockHttpServletResponse();
+		filtro.doFilter(new MockHttpServletRequest("GET", "/tickets"), rechazada, new MockFilterChain());
+		assertThat(rechazada.getStatus()).isEqualTo(503);
+		assertThat(rechazada.getHeader("Retry-After")).isEqualTo("1");
+		assertThat(registry.counter("web.admision.rechazos").count()).isEqualTo(1);
+
+		// Al terminar la primera, el lugar vuelve a estar disponible
+		liberar.countDown();
+		primera.join();
+		MockHttpServletResponse admitida = new MockHttpServletResponse();
+		filtro.doFilter(new MockHttpServletRequest("GET", "/tickets"), admitida, new MockFilterChain());
+		assertThat(admitida.getStatus()).isEqualTo(200);
+	}
+}
@@ -0,0 +1,38 @@
+package com.example.java.proyect.config;
+
+import java.net.URI;
+import java.util.UUID;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+
+/**
+ * 🗄️ Tests: cada contexto de Spring con su propia caché de segundo nivel.
+ *
+ * El CacheManager de JCache por defecto es uno solo por JVM, y cada contexto recrea el esquema
+ * de H2 (los IDs se repiten con datos distintos): compartido, un contexto leería tickets
+ * cacheados por otro. Mismas regiones (application.conf), otro CacheManager.
+ */
+@Configuration
+@Profile("test")
+public class CacheSegundoNivelTestConfig {
+
+    @Bean(destroyMethod = "close")
+    public CacheManager cacheManagerSegundoNivel() {
+        return Caching.getCachingProvider(CaffeineCachingProvider.class.getName())
+                .getCacheManager(URI.create("urn:comunitytech-test-" + UUID.randomUUID()), getClass().getClassLoader());
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer cacheSegundoNivelPropia(CacheManager cacheManagerSegundoNivel) {
+        return propiedades -> propiedades.put(ConfigSettings.CACHE_MANAGER, cacheManagerSegundoNivel);
+    }
+}
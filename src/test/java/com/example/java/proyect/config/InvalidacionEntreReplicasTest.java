@@ -0,0 +1,136 @@
+package com.example.java.proyect.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.cache.jcache.internal.JCacheAccessImpl;
+import org.hibernate.cache.spi.support.DomainDataRegionImpl;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.example.java.proyect.TicketRepository;
+import com.example.java.proyect.models.requests.TicketModel;
+import com.example.java.proyect.service.TicketCambios;
+import com.example.java.proyect.service.TicketSearchIndex;
+import com.example.java.proyect.service.TicketService;
+import com.github.benmanes.caffeine.cache.Cache;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * 🗄️ Caché de segundo nivel de tickets e invalidación entre réplicas (la "otra réplica"
+ * se simula escribiendo directamente en cache_invalidacion).
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class InvalidacionEntreReplicasTest {
+
+	@Autowired
+	private TicketService ticketService;
+
+	@Autowired
+	private TicketRepository ticketRepository;
+
+	@Autowired
+	private InvalidacionEntreReplicas invalidacion;
+
+	@Autowired
+	private JdbcTemplate jdbc;
+
+	@Autowired
+	private TicketSearchIndex ticketSearchIndex;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Autowired
+	private TicketCambios ticketCambios;
+
+	private org.hibernate.Cache segundoNivel;
+
+	private TicketModel ticket;
+
+	@BeforeEach
+	void crearTicket() {
+		segundoNivel = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+		TicketModel nuevo = new TicketModel();
+		nuevo.setClienteEmail("replica@test.com");
+		nuevo.setEstado("pendiente");
+		ticket = ticketRepository.save(nuevo);
+	}
+
+	@Test
+	void losTicketsLeidosQuedanEnLaRegionConfigurada() {
+		segundoNivel.evictEntityData(TicketModel.class);
+		ticketService.obtenerPorId(ticket.getId());
+		assertThat(segundoNivel.containsEntity(TicketModel.class, ticket.getId())).isTrue();
+
+		// Tamaño máximo tomado de application.conf
+		DomainDataRegionImpl tickets = (DomainDataRegionImpl) entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+				.getCache().getRegion("tickets");
+		javax.cache.Cache<?, ?> jcache = ((JCacheAccessImpl) tickets.getCacheStorageAccess()).getUnderlyingCache();
+		Cache<?, ?> region = jcache.unwrap(Cache.class);
+		assertThat(region.policy().eviction().orElseThrow().getMaximum()).isEqualTo(10_000);
+	}
+
+	@Test
+	void unCambioDeOtraReplicaSacaElTicketDeLaCacheYLlegaAlIndice() throws Exception {
+		ticketService.obtenerPorId(ticket.getId());
+		assertThat(segundoNivel.containsEntity(TicketModel.class, ticket.getId())).isTrue();
+
+		// La otra réplica cambió la descripción y avisó
+		jdbc.update("UPDATE ticket_model SET descripcion_problema = 'Bisagra astillada' WHERE id = ?", ticket.getId());
+		jdbc.update("INSERT INTO cache_invalidacion (origen, entidad, entidad_id, clave, creado_en) "
+				+ "VALUES ('otra-replica', 'ticket', ?, 'replica@test.com', CURRENT_TIMESTAMP(6))", ticket.getId());
+		invalidacion.aplicarRemotas();
+
+		assertThat(segundoNivel.containsEntity(TicketModel.class, ticket.getId())).isFalse();
+
+		// El índice de búsqueda relee el ticket (en su propio hilo)
+		long limite = System.currentTimeMillis() + 3000;
+		while (!ticketSearchIndex.buscar("astillada", null, null, null, null, 10).contains(ticket.getId())
+				&& System.currentTimeMillis() < limite) {
+			Thread.sleep(20);
+		}
+		assertThat(ticketSearchIndex.buscar("astillada", null, null, null, null, 10)).contains(ticket.getId());
+	}
+
+	@Test
+	void losCambiosLocalesSePublicanParaLasDemasReplicas() throws Exception {
+		TicketModel cambios = new TicketModel();
+		cambios.setSolucion("Cambio de pin de carga");
+		ticketService.actualizarTicket(ticket.getId(), cambios);
+
+		long limite = System.currentTimeMillis() + 3000;
+		Integer filas = 0;
+		while (filas == 0 && System.currentTimeMillis() < limite) {
+			invalidacion.publicar();
+			filas = jdbc.queryForObject("SELECT COUNT(*) FROM cache_invalidacion WHERE origen = ? AND entidad_id = ?",
+					Integer.class, invalidacion.origen(), ticket.getId());
+			Thread.sleep(20);
+		}
+		assertThat(filas).isPositive();
+	}
+
+	@Test
+	void alDiaConLasDemasReplicasElEtagEsLaUltimaFilaDeTickets() {
+		invalidacion.publicar(); // El ticket del @BeforeEach
+		jdbc.update("INSERT INTO cache_invalidacion (origen, entidad, entidad_id, clave, creado_en) "
+				+ "VALUES ('otra-replica', 'ticket', ?, 'replica@test.com', CURRENT_TIMESTAMP(6))", ticket.getId());
+		invalidacion.aplicarRemotas(); // Aplica la fila de la otra réplica
+		invalidacion.aplicarRemotas(); // Ronda sin novedades: se confirma
+
+		Long ultima = jdbc.queryForObject("SELECT MAX(id) FROM cache_invalidacion WHERE entidad = 'ticket'", Long.class);
+		assertThat(ticketCambios.etag()).isEqualTo("W/\"" + ultima + "\"");
+
+		// Una corrección que solo pasó acá: ETag propio hasta que haya una fila nueva
+		ticketCambios.registrarCorreccion();
+		invalidacion.aplicarRemotas();
+		assertThat(ticketCambios.etag()).isNotEqualTo("W/\"" + ultima + "\"").startsWith("W/\"" + ultima + "-");
+	}
+}
@@ -0,0 +1,85 @@
+package com.example.java.proyect.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.MDC;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+class JWTAuthorizationFilterTest {
+
+	private final JWTAuthorizationFilter filtro = new JWTAuthorizationFilter();
+
+	@AfterEach
+	void limpiar() {
+		SecurityContextHolder.clearContext();
+	}
+
+	@Test
+	void dejaElIdDePeticionYElUsuarioEnElMdcMientrasSeAtiende() throws Exception {
+		MockHttpServletRequest request = pedido("/tickets/estadisticas");
+		request.addHeader(SecurityConstants.HEADER_STRING,
+				SecurityConstants.TOKEN_PREFIX + " " + JWTUtil.generateToken("cliente@test.com", "ROLE_CLIENTE"));
+		request.addHeader(JWTAuthorizationFilter.HEADER_ID_PETICION, "abc-123");
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		Map<String, String> visto = new HashMap<>();
+
+		filtro.doFilter(request, response, cadenaQueAnota(visto));
+
+		assertThat(visto).containsEntry(JWTAuthorizationFilter.MDC_ID_PETICION, "abc-123")
+				.containsEntry(JWTAuthorizationFilter.MDC_USUARIO, "cliente@test.com");
+		assertThat(response.getHeader(JWTAuthorizationFilter.HEADER_ID_PETICION)).isEqualTo("abc-123");
+		// Al terminar no queda nada en el hilo
+		assertThat(MDC.get(JWTAuthorizationFilter.MDC_ID_PETICION)).isNull();
+		assertThat(MDC.get(JWTAuthorizationFilter.MDC_USUARIO)).isNull();
+	}
+
+	@Test
+	void generaUnIdNuevoSiNoVieneOEsInvalido() throws Exception {
+		MockHttpServletRequest request = pedido("/users/login");
+		request.addHeader(JWTAuthorizationFilter.HEADER_ID_PETICION, "falso\nERROR otra linea");
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		Map<String, String> visto = new HashMap<>();
+
+		filtro.doFilter(request, response, cadenaQueAnota(visto));
+
+		String id = response.getHeader(JWTAuthorizationFilter.HEADER_ID_PETICION);
+		assertThat(id).matches("[0-9a-f]{1,16}");
+		assertThat(visto).containsEntry(JWTAuthorizationFilter.MDC_ID_PETICION, id)
+				.doesNotContainKey(JWTAuthorizationFilter.MDC_USUARIO);
+	}
+
+	private static MockHttpServletRequest pedido(String ruta) {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", ruta);
+		request.setServletPath(ruta);
+		return request;
+	}
+
+	// Cadena que guarda lo que había en el MDC al llegar al controlador
+	private static MockFilterChain cadenaQueAnota(Map<String, String> visto) {
+		return new MockFilterChain(new HttpServlet() {
+			@Override
+			protected void service(HttpServletRequest req, HttpServletResponse resp) {
+				String id = MDC.get(JWTAuthorizationFilter.MDC_ID_PETICION);
+				String usuario = MDC.get(JWTAuthorizationFilter.MDC_USUARIO);
+				if (id != null) {
+					visto.put(JWTAuthorizationFilter.MDC_ID_PETICION, id);
+				}
+				if (usuario != null) {
+					visto.put(JWTAuthorizationFilter.MDC_USUARIO, usuario);
+				}
+			}
+		});
+	}
+}
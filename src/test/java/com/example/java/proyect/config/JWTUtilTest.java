@@ -0,0 +1,61 @@
+package com.example.java.proyect.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Date;
+
+import org.junit.jupiter.api.Test;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+
+class JWTUtilTest {
+
+	@Test
+	void validarDevuelveEmailYRolYReutilizaElCache() {
+		String token = JWTUtil.generateToken("cliente@test.com", "ROLE_CLIENTE");
+
+		JWTUtil.TokenValidado primero = JWTUtil.validar(token);
+		JWTUtil.TokenValidado segundo = JWTUtil.validar(token);
+
+		assertThat(primero.email()).isEqualTo("cliente@test.com");
+		assertThat(primero.role()).isEqualTo("ROLE_CLIENTE");
+		assertThat(segundo).isSameAs(primero);
+	}
+
+	@Test
+	void rechazaTokensAlteradosOVencidos() {
+		String token = JWTUtil.generateToken("cliente@test.com", "ROLE_CLIENTE");
+		String alterado = token.substring(0, token.length() - 2) + (token.endsWith("AA") ? "BB" : "AA");
+
+		String vencido = Jwts.builder()
+				.setSubject("cliente@test.com")
+				.claim("role", "ROLE_CLIENTE")
+				.setExpiration(new Date(System.currentTimeMillis() - 1000))
+				.signWith(Keys.hmacShaKeyFor(Decoders.BASE64.decode(SecurityConstants.TOKEN_SECRET)), SignatureAlgorithm.HS512)
+				.compact();
+
+		assertThat(JWTUtil.validar(alterado)).isNull();
+		assertThat(JWTUtil.validar(vencido)).isNull();
+		assertThat(JWTUtil.isTokenValid(vencido)).isFalse();
+	}
+
+	@Test
+	void unTokenCacheadoDejaDeValerCuandoVence() throws Exception {
+		long vence = (System.currentTimeMillis() / 1000 + 2) * 1000; // "exp" va en segundos
+		String token = Jwts.builder()
+				.setSubject("cliente@test.com")
+				.claim("role", "ROLE_CLIENTE")
+				.setExpiration(new Date(vence))
+				.signWith(Keys.hmacShaKeyFor(Decoders.BASE64.decode(SecurityConstants.TOKEN_SECRET)), SignatureAlgorithm.HS512)
+				.compact();
+
+		assertThat(JWTUtil.validar(token)).isNotNull();
+		assertThat(JWTUtil.validar(token)).isNotNull(); // Ya sale del caché
+
+		Thread.sleep(vence - System.currentTimeMillis() + 50);
+		assertThat(JWTUtil.validar(token)).isNull();
+	}
+}
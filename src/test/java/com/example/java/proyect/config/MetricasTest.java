@@ -0,0 +1,73 @@
+package com.example.java.proyect.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.example.java.proyect.models.requests.TicketModel;
+import com.example.java.proyect.service.TicketService;
+
+@SpringBootTest(properties = "metricas.clave=clave-de-prueba")
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+@ActiveProfiles("test")
+class MetricasTest {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private TicketService ticketService;
+
+	@Test
+	void prometheusExponeLasMetricasDeLaApp() throws Exception {
+		String token = JWTUtil.generateToken("metricas@test.com", "ROLE_ADMIN");
+		mockMvc.perform(get("/tickets/pagina").header("Authorization", "Bearer " + token))
+				.andExpect(status().isOk());
+		mockMvc.perform(get("/tickets/pagina").header("Authorization", "Bearer " + token))
+				.andExpect(status().isOk());
+
+		// 🏷️ Un estado escrito a mano sale como "otro" en tickets_transiciones
+		TicketModel ticket = new TicketModel();
+		ticket.setClienteEmail("metricas@test.com");
+		ticket.setEstado("Estado inventado");
+		ticket = ticketService.crearTicket(ticket);
+		TicketModel cambios = new TicketModel();
+		cambios.setEstado("Listo");
+		ticketService.actualizarTicket(ticket.getId(), cambios);
+
+		// 🔐 Sin usuario y clave (o con un JWT) no se ven las métricas
+		mockMvc.perform(get("/actuator/prometheus"))
+				.andExpect(status().isUnauthorized());
+		mockMvc.perform(get("/actuator/prometheus").header("Authorization", "Bearer " + token))
+				.andExpect(status().isUnauthorized());
+
+		String cuerpo = mockMvc.perform(get("/actuator/prometheus")
+						.header(HttpHeaders.AUTHORIZATION, "Basic " + HttpHeaders.encodeBasicAuth("prometheus", "clave-de-prueba", null)))
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getContentAsString();
+
+		assertThat(cuerpo)
+				.contains("http_server_requests_seconds_bucket")
+				.contains("jwt_verificacion_seconds_count")
+				.contains("jwt_cache_total{application=\"comunitytech-back\",resultado=\"hit\"")
+				.contains("email_outbox_pendientes")
+				.contains("email_envio_seconds_count")
+				.contains("email_mensajes_por_lote")
+				.contains("hibernate_second_level_cache_requests_total{application=\"comunitytech-back\",entityManagerFactory=\"entityManagerFactory\",region=\"tickets\"")
+				.contains("hikaricp_connections_active")
+				.contains("hikaricp_connections_idle")
+				.contains("hikaricp_connections_acquire_seconds_bucket")
+				.contains("tickets_transiciones_total{application=\"comunitytech-back\",desde=\"otro\",hacia=\"listo\"}")
+				.doesNotContain("Estado inventado");
+	}
+}
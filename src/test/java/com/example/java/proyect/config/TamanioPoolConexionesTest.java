@@ -0,0 +1,18 @@
+package com.example.java.proyect.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+class TamanioPoolConexionesTest {
+
+	@Test
+	void usaElMenorEntreCpuYLoQueLeTocaDeLaBase() {
+		// 4 núcleos → 9; la base alcanza para 47 por réplica
+		assertThat(TamanioPoolConexiones.calcular(4, 151, 10, 3)).isEqualTo(9);
+		// 16 núcleos → 33; pero 6 réplicas se reparten 141 conexiones → 23
+		assertThat(TamanioPoolConexiones.calcular(16, 151, 10, 6)).isEqualTo(23);
+		// Nunca menos de 2
+		assertThat(TamanioPoolConexiones.calcular(1, 20, 19, 4)).isEqualTo(2);
+	}
+}
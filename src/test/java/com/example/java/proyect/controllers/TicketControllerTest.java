@@ -0,0 +1,384 @@
+package com.example.java.proyect.controllers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.List;
+import java.util.Map;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import com.example.java.proyect.EmailOutboxRepository;
+import com.example.java.proyect.TicketRepository;
+import com.example.java.proyect.config.JWTUtil;
+import com.example.java.proyect.models.requests.TicketModel;
+import com.example.java.proyect.service.TicketStatsCache;
+import com.jayway.jsonpath.JsonPath;
+
+import jakarta.persistence.EntityManagerFactory;
+
+// Sin rondas de la bandeja de salida: sus consultas se cuelan en el conteo de los 304
+@SpringBootTest(properties = "email.outbox.intervalo-ms=3600000")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class TicketControllerTest {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private TicketRepository ticketRepository;
+
+	@Autowired
+	private EmailOutboxRepository emailOutboxRepository;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Autowired
+	private TicketStatsCache statsCache;
+
+	private final String token = "Bearer " + JWTUtil.generateToken("davidvall65@hotmail.com", "ROLE_ADMIN");
+
+	@BeforeEach
+	void cargarTickets() {
+		ticketRepository.deleteAll();
+		for (int i = 0; i < 5; i++) {
+			TicketModel ticket = new TicketModel();
+			ticket.setClienteEmail("cliente" + i + "@test.com");
+			ticket.setEstado("pendiente");
+			ticketRepository.save(ticket);
+		}
+	}
+
+	@Test
+	void paginaPorCursorHastaTerminar() throws Exception {
+		MvcResult primera = mockMvc.perform(get("/tickets/pagina").param("tamanio", "3").header("Authorization", token))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.tickets.length()").value(3))
+				.andReturn();
+
+		String siguiente = JsonPath.read(primera.getResponse().getContentAsString(), "$.siguiente").toString();
+
+		mockMvc.perform(get("/tickets/pagina").param("despuesDe", siguiente).param("tamanio", "3").header("Authorization", token))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.tickets.length()").value(2))
+				.andExpect(jsonPath("$.siguiente").doesNotExist());
+	}
+
+	@Test
+	void streamEscribeUnTicketPorLinea() throws Exception {
+		MvcResult async = mockMvc.perform(get("/tickets/stream").header("Authorization", token))
+				.andExpect(request().asyncStarted())
+				.andReturn();
+
+		String cuerpo = mockMvc.perform(asyncDispatch(async))
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getContentAsString();
+
+		assertThat(cuerpo).endsWith("}\n");
+		assertThat(cuerpo.split("\n")).hasSize(5).allMatch(linea -> linea.startsWith("{\"id\":"));
+	}
+
+	@Test
+	void importaNdjsonYCsvEnStreaming() throws Exception {
+		StringBuilder ndjson = new StringBuilder();
+		for (int i = 0; i < 120; i++) {
+			ndjson.append("{\"clienteEmail\":\"Importado").append(i % 3).append("@Test.com\",\"estado\":\"pendiente\"}\n");
+		}
+		mockMvc.perform(post("/tickets/importar").header("Authorization", token)
+						.contentType(MediaType.APPLICATION_NDJSON).content(ndjson.toString()))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.procesados").value(120));
+
+		String csv = """
+				clienteEmail,estado,prioridad,precio,fechaCreacion
+				csv1@test.com,listo,Alta,1500.5,2025-01-10
+				csv2@test.com,pendiente,Baja,,
+				""";
+		mockMvc.perform(post("/tickets/importar").header("Authorization", token)
+						.contentType("text/csv").content(csv))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.procesados").value(2));
+
+		assertThat(ticketRepository.count()).isEqualTo(5 + 120 + 2);
+		assertThat(ticketRepository.findByClienteEmailNormalizado("importado0@test.com")).hasSize(40);
+		assertThat(ticketRepository.findByClienteEmailNormalizado("csv1@test.com"))
+				.singleElement()
+				.satisfies(t -> assertThat(t.getPrecio()).isEqualTo(1500.5));
+	}
+
+	@Test
+	void importacionConUnaFilaInvalidaNoGuardaNada() throws Exception {
+		Map<String, Long> conteosAntes = statsCache.conteoPorEstado();
+
+		// Más de un bloque (500) antes de la fila inválida: el primero ya se mandó a la base
+		StringBuilder ndjson = new StringBuilder();
+		for (int i = 0; i < 600; i++) {
+			ndjson.append("{\"clienteEmail\":\"ok@test.com\",\"estado\":\"pendiente\"}\n");
+		}
+		ndjson.append("{\"estado\":\"pendiente\"}\n");
+		mockMvc.perform(post("/tickets/importar").header("Authorization", token)
+						.contentType(MediaType.APPLICATION_NDJSON).content(ndjson.toString()))
+				.andExpect(status().isBadRequest());
+
+		assertThat(ticketRepository.count()).isEqualTo(5);
+		assertThat(statsCache.conteoPorEstado()).isEqualTo(conteosAntes);
+	}
+
+	@Test
+	void cambiaElEstadoDeVariosTicketsYEncolaLosAvisos() throws Exception {
+		List<TicketModel> tickets = ticketRepository.findAll();
+		TicketModel conAviso = tickets.get(0);
+		conAviso.setNotificarCliente(true);
+		ticketRepository.save(conAviso);
+		long emailsAntes = emailOutboxRepository.count();
+
+		String ids = tickets.stream().limit(3).map(t -> t.getId().toString()).reduce((a, b) -> a + "," + b).orElseThrow();
+		mockMvc.perform(put("/tickets/estado").header("Authorization", token)
+						.contentType(MediaType.APPLICATION_JSON).content("{\"ids\":[" + ids + "],\"estado\":\"listo\"}"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.procesados").value(3))
+				.andExpect(jsonPath("$.notificados").value(1));
+
+		assertThat(ticketRepository.findAll()).filteredOn(t -> "listo".equals(t.getEstado()))
+				.hasSize(3)
+				.allSatisfy(t -> assertThat(t.getFechaListo()).isNotNull());
+		assertThat(emailOutboxRepository.count()).isEqualTo(emailsAntes + 1);
+	}
+
+	@Test
+	void lasOperacionesMasivasSonSoloParaAdmins() throws Exception {
+		String cliente = "Bearer " + JWTUtil.generateToken("cliente@test.com", "ROLE_CLIENTE");
+		mockMvc.perform(put("/tickets/estado").header("Authorization", cliente)
+						.contentType(MediaType.APPLICATION_JSON).content("{\"ids\":[1],\"estado\":\"listo\"}"))
+				.andExpect(status().isForbidden());
+	}
+
+	@Test
+	void editarUnTicketEsSoloParaAdmins() throws Exception {
+		String cliente = "Bearer " + JWTUtil.generateToken("cliente0@test.com", "ROLE_CLIENTE");
+		TicketModel ticket = ticketRepository.findByClienteEmailNormalizado("cliente0@test.com").get(0);
+
+		mockMvc.perform(patch("/tickets/" + ticket.getId()).header("Authorization", cliente)
+						.contentType(MediaType.APPLICATION_JSON)
+						.content("{\"precio\":1,\"version\":" + ticket.getVersion() + "}"))
+				.andExpect(status().isForbidden());
+		mockMvc.perform(put("/tickets/" + ticket.getId()).header("Authorization", cliente)
+						.contentType(MediaType.APPLICATION_JSON).content("{\"solucion\":\"Gratis\"}"))
+				.andExpect(status().isForbidden());
+
+		TicketModel sinCambios = ticketRepository.findById(ticket.getId()).orElseThrow();
+		assertThat(sinCambios.getPrecio()).isNull();
+		assertThat(sinCambios.getSolucion()).isNull();
+	}
+
+	@Test
+	void patchGuardaLosCamposYAvanzaLaVersion() throws Exception {
+		TicketModel ticket = ticketRepository.findAll().get(0);
+		Long version = ticket.getVersion();
+
+		mockMvc.perform(patch("/tickets/" + ticket.getId()).header("Authorization", token)
+						.contentType(MediaType.APPLICATION_JSON)
+						.content("{\"version\":" + version + ",\"solucion\":\"Cambio de pantalla\",\"precio\":2500}"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.version").value(version + 1));
+
+		TicketModel guardado = ticketRepository.findById(ticket.getId()).orElseThrow();
+		assertThat(guardado.getSolucion()).isEqualTo("Cambio de pantalla");
+		assertThat(guardado.getPrecio()).isEqualTo(2500.0);
+		assertThat(guardado.getEstado()).isEqualTo(ticket.getEstado());
+		assertThat(guardado.getVersion()).isEqualTo(version + 1);
+
+		// Misma versión otra vez: alguien ya la cambió
+		mockMvc.perform(patch("/tickets/" + ticket.getId()).header("Authorization", token)
+						.contentType(MediaType.APPLICATION_JSON)
+						.content("{\"version\":" + version + ",\"prioridad\":\"Alta\"}"))
+				.andExpect(status().isConflict());
+		assertThat(ticketRepository.findById(ticket.getId()).orElseThrow().getPrioridad()).isNotEqualTo("Alta");
+	}
+
+	@Test
+	void putConVersionViejaDevuelveConflicto() throws Exception {
+		TicketModel ticket = ticketRepository.findAll().get(0);
+		mockMvc.perform(put("/tickets/" + ticket.getId()).header("Authorization", token)
+						.contentType(MediaType.APPLICATION_JSON)
+						.content("{\"version\":" + (ticket.getVersion() + 7) + ",\"estado\":\"listo\"}"))
+				.andExpect(status().isConflict());
+
+		mockMvc.perform(patch("/tickets/" + ticket.getId()).header("Authorization", token)
+						.contentType(MediaType.APPLICATION_JSON).content("{\"estado\":\"listo\"}"))
+				.andExpect(status().isBadRequest());
+	}
+
+	@Test
+	void eventosLleganAlAdminYAlClienteSoloLosSuyos() throws Exception {
+		String cliente = "Bearer " + JWTUtil.generateToken("Vecino@Test.com", "ROLE_CLIENTE");
+		MvcResult admin = mockMvc.perform(get("/tickets/eventos").header("Authorization", token))
+				.andExpect(request().asyncStarted())
+				.andReturn();
+		MvcResult suyo = mockMvc.perform(get("/tickets/eventos").header("Authorization", cliente))
+				.andExpect(request().asyncStarted())
+				.andReturn();
+
+		mockMvc.perform(post("/tickets").header("Authorization", token)
+						.contentType(MediaType.APPLICATION_JSON).content("{\"clienteEmail\":\"otro@test.com\"}"))
+				.andExpect(status().isOk());
+		mockMvc.perform(post("/tickets").header("Authorization", token)
+						.contentType(MediaType.APPLICATION_JSON).content("{\"clienteEmail\":\"vecino@test.com\"}"))
+				.andExpect(status().isOk());
+
+		String paraAdmin = esperarEventos(admin, 2);
+		assertThat(paraAdmin).contains("otro@test.com", "vecino@test.com");
+		String paraCliente = esperarEventos(suyo, 1);
+		assertThat(paraCliente).contains("event:creado", "vecino@test.com").doesNotContain("otro@test.com");
+	}
+
+	// Los eventos los escribe otro hilo: se espera (con límite) a que aparezcan en la respuesta
+	private String esperarEventos(MvcResult conexion, int cantidad) throws Exception {
+		long limite = System.currentTimeMillis() + 5000;
+		String cuerpo = conexion.getResponse().getContentAsString();
+		while (cuerpo.split("event:creado", -1).length - 1 < cantidad && System.currentTimeMillis() < limite) {
+			Thread.sleep(20);
+			cuerpo = conexion.getResponse().getContentAsString();
+		}
+		return cuerpo;
+	}
+
+	@Test
+	void buscaPorTextoSinTildesConPrefijosYFiltros() throws Exception {
+		mockMvc.perform(post("/tickets").header("Authorization", token).contentType(MediaType.APPLICATION_JSON)
+						.content("{\"clienteEmail\":\"a@test.com\",\"estado\":\"pendiente\",\"descripcionProblema\":\"Pantalla rota, necesita reparación\"}"))
+				.andExpect(status().isOk());
+		mockMvc.perform(post("/tickets").header("Authorization", token).contentType(MediaType.APPLICATION_JSON)
+						.content("{\"clienteEmail\":\"b@test.com\",\"estado\":\"listo\",\"descripcionProblema\":\"No carga\",\"solucion\":\"Cambio de batería\"}"))
+				.andExpect(status().isOk());
+
+		// El índice se actualiza en segundo plano: se espera a que aparezca
+		long limite = System.currentTimeMillis() + 5000;
+		String cuerpo = "";
+		while (!cuerpo.contains("a@test.com") && System.currentTimeMillis() < limite) {
+			Thread.sleep(20);
+			cuerpo = mockMvc.perform(get("/tickets/buscar").param("q", "REPARACION").header("Authorization", token))
+					.andExpect(status().isOk())
+					.andReturn().getResponse().getContentAsString();
+		}
+		assertThat(cuerpo).contains("Pantalla rota").doesNotContain("b@test.com");
+
+		mockMvc.perform(get("/tickets/buscar").param("q", "pant").header("Authorization", token))
+				.andExpect(jsonPath("$.length()").value(1))
+				.andExpect(jsonPath("$[0].clienteEmail").value("a@test.com"));
+		mockMvc.perform(get("/tickets/buscar").param("q", "bateria").param("estado", "Listo").header("Authorization", token))
+				.andExpect(jsonPath("$.length()").value(1))
+				.andExpect(jsonPath("$[0].clienteEmail").value("b@test.com"));
+		mockMvc.perform(get("/tickets/buscar").param("q", "bateria").param("estado", "pendiente").header("Authorization", token))
+				.andExpect(jsonPath("$.length()").value(0));
+	}
+
+	@Test
+	void listadoConFiltrosOrdenYCampos() throws Exception {
+		List<TicketModel> tickets = ticketRepository.findAll();
+		for (int i = 0; i < tickets.size(); i++) {
+			TicketModel ticket = tickets.get(i);
+			ticket.setPrecio(1000.0 * (i + 1));
+			ticket.setPrioridad(i % 2 == 0 ? "alta" : "baja");
+			ticket.setDescripcionProblema("Descripción larga " + i);
+			ticketRepository.save(ticket);
+		}
+
+		// Sin parámetros: todos los tickets completos, como siempre
+		mockMvc.perform(get("/tickets").header("Authorization", token))
+				.andExpect(jsonPath("$.length()").value(5))
+				.andExpect(jsonPath("$[0].descripcionProblema").exists());
+
+		mockMvc.perform(get("/tickets").header("Authorization", token)
+						.param("prioridad", "alta").param("precioMin", "2000")
+						.param("sort", "precio,desc").param("fields", "id,precio"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.length()").value(2))
+				.andExpect(jsonPath("$[0].precio").value(5000.0))
+				.andExpect(jsonPath("$[1].precio").value(3000.0))
+				.andExpect(jsonPath("$[0].descripcionProblema").doesNotExist())
+				.andExpect(jsonPath("$[0].estado").doesNotExist());
+
+		mockMvc.perform(get("/tickets").header("Authorization", token)
+						.param("clienteEmail", "CLIENTE1@test.com").param("creadoHasta", "2999-12-31"))
+				.andExpect(jsonPath("$.length()").value(1))
+				.andExpect(jsonPath("$[0].clienteEmail").value("cliente1@test.com"));
+
+		mockMvc.perform(get("/tickets").header("Authorization", token).param("fields", "id,clienteEmailNormalizado"))
+				.andExpect(status().isBadRequest());
+	}
+
+	@Test
+	void cadaCambioDeEstadoQuedaEnElHistorialYEnLosTiempos() throws Exception {
+		TicketModel ticket = ticketRepository.findAll().get(0);
+		for (String estado : List.of("en reparación", "listo")) {
+			mockMvc.perform(put("/tickets/" + ticket.getId()).header("Authorization", token)
+							.contentType(MediaType.APPLICATION_JSON).content("{\"estado\":\"" + estado + "\"}"))
+					.andExpect(status().isOk());
+		}
+
+		mockMvc.perform(get("/tickets/" + ticket.getId() + "/transiciones").header("Authorization", token))
+				.andExpect(jsonPath("$.length()").value(2))
+				.andExpect(jsonPath("$[0].desde").value("pendiente"))
+				.andExpect(jsonPath("$[0].hacia").value("en reparación"))
+				.andExpect(jsonPath("$[1].hacia").value("listo"))
+				.andExpect(jsonPath("$[1].actor").value("davidvall65@hotmail.com"))
+				.andExpect(jsonPath("$[1].segundosEnEstado").isNumber());
+
+		mockMvc.perform(get("/tickets/sla").header("Authorization", token))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$[?(@.estado == 'pendiente')].cantidad").isNotEmpty())
+				.andExpect(jsonPath("$[?(@.estado == 'en reparación')].p95Horas").isNotEmpty());
+	}
+
+	@Test
+	void losListadosRespondenNoModificadoSinConsultarLaBase() throws Exception {
+		String etag = mockMvc.perform(get("/tickets").header("Authorization", token))
+				.andExpect(status().isOk())
+				.andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache, private"))
+				.andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+		assertThat(etag).startsWith("W/\"");
+
+		// Mismo ETag y nada cambió: 304 sin cuerpo y sin ninguna consulta
+		Statistics estadisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		long consultasAntes = estadisticas.getPrepareStatementCount();
+		mockMvc.perform(get("/tickets").header("Authorization", token).header(HttpHeaders.IF_NONE_MATCH, etag))
+				.andExpect(status().isNotModified())
+				.andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache, private"));
+		mockMvc.perform(get("/tickets/estadisticas").header("Authorization", token).header(HttpHeaders.IF_NONE_MATCH, etag))
+				.andExpect(status().isNotModified());
+		assertThat(estadisticas.getPrepareStatementCount()).isEqualTo(consultasAntes);
+
+		// Un ticket nuevo cambia el ETag: se vuelve a responder completo
+		mockMvc.perform(post("/tickets").header("Authorization", token)
+						.contentType(MediaType.APPLICATION_JSON).content("{\"clienteEmail\":\"nuevo@test.com\"}"))
+				.andExpect(status().isOk());
+		mockMvc.perform(get("/tickets").header("Authorization", token).header(HttpHeaders.IF_NONE_MATCH, etag))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.length()").value(6));
+		mockMvc.perform(get("/tickets/cliente/nuevo@test.com").header("Authorization", token).header(HttpHeaders.IF_NONE_MATCH, etag))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.length()").value(1));
+	}
+}
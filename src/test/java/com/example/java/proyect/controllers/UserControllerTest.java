@@ -0,0 +1,93 @@
+package com.example.java.proyect.controllers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import com.example.java.proyect.UserRepository;
+import com.example.java.proyect.config.JWTUtil;
+import com.example.java.proyect.entities.UserEntity;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class UserControllerTest {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@MockitoSpyBean
+	private UserRepository userRepository;
+
+	private final String token = "Bearer " + JWTUtil.generateToken("davidvall65@hotmail.com", "ROLE_ADMIN");
+
+	@Test
+	void buscarPorEmailUsaLaCacheYNoExponeLaContrasenia() throws Exception {
+		registrar("carla@test.com").andExpect(status().isOk());
+		clearInvocations(userRepository);
+
+		for (int i = 0; i < 10; i++) {
+			mockMvc.perform(get("/users/email/carla@test.com").header("Authorization", token))
+					.andExpect(status().isOk())
+					.andExpect(jsonPath("$.firstName").value("Carla"))
+					.andExpect(jsonPath("$.encryptedPassword").doesNotExist());
+		}
+
+		// Mismo email escrito distinto: misma entrada de la caché
+		mockMvc.perform(get("/users/email/CARLA@Test.com").header("Authorization", token))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.email").value("carla@test.com"));
+		verify(userRepository, times(1)).findResumenByEmail(anyString());
+	}
+
+	@Test
+	void registrarUnEmailRepetidoDevuelve409() throws Exception {
+		registrar("repetido@test.com").andExpect(status().isOk());
+		registrar("repetido@test.com").andExpect(status().isConflict());
+	}
+
+	@Test
+	void unLoginConUnHashViejoLoGuardaReCifrado() throws Exception {
+		registrar("vieja@test.com").andExpect(status().isOk());
+		UserEntity usuario = userRepository.findByEmail("vieja@test.com");
+		usuario.setEncryptedPassword(new BCryptPasswordEncoder(4).encode("secreta123"));
+		userRepository.save(usuario);
+
+		mockMvc.perform(post("/users/login").contentType(MediaType.APPLICATION_JSON)
+						.content("{\"email\": \"vieja@test.com\", \"password\": \"secreta123\"}"))
+				.andExpect(status().isOk());
+
+		// Se guarda en segundo plano, releyendo el usuario
+		long limite = System.currentTimeMillis() + 5000;
+		while (userRepository.findByEmail("vieja@test.com").getEncryptedPassword().startsWith("$2a$04$")
+				&& System.currentTimeMillis() < limite) {
+			Thread.sleep(20);
+		}
+		String hash = userRepository.findByEmail("vieja@test.com").getEncryptedPassword();
+		assertThat(hash).doesNotStartWith("$2a$04$");
+		assertThat(new BCryptPasswordEncoder().matches("secreta123", hash)).isTrue();
+	}
+
+	private ResultActions registrar(String email) throws Exception {
+		return mockMvc.perform(post("/users").contentType(MediaType.APPLICATION_JSON).content("""
+				{"firstName": "Carla", "lastName": "Gómez", "email": "%s", "password": "secreta123"}
+				""".formatted(email)));
+	}
+}
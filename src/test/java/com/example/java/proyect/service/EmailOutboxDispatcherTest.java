@@ -0,0 +1,66 @@
+package com.example.java.proyect.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.example.java.proyect.EmailOutboxRepository;
+import com.example.java.proyect.entities.EmailOutboxEntity;
+import com.example.java.proyect.models.requests.TicketModel;
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.ServerSetupTest;
+
+import jakarta.mail.internet.MimeMessage;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class EmailOutboxDispatcherTest {
+
+	@RegisterExtension
+	static GreenMailExtension smtp = new GreenMailExtension(ServerSetupTest.SMTP);
+
+	@Autowired
+	private TicketService ticketService;
+
+	@Autowired
+	private EmailOutboxRepository outboxRepository;
+
+	@Test
+	void actualizarTicketEncolaYElDispatcherEnviaElEmail() throws Exception {
+		TicketModel ticket = new TicketModel();
+		ticket.setClienteEmail("Cliente@Test.com");
+		ticket.setEstado("pendiente");
+		ticket.setNotificarCliente(true);
+		ticket = ticketService.crearTicket(ticket);
+
+		TicketModel cambios = new TicketModel();
+		cambios.setEstado("listo");
+		cambios.setNotificarCliente(true);
+		ticketService.actualizarTicket(ticket.getId(), cambios);
+
+		// El PUT no envía: solo deja el email en la bandeja de salida
+		assertThat(smtp.waitForIncomingEmail(5000, 1)).isTrue();
+
+		MimeMessage recibido = smtp.getReceivedMessages()[0];
+		assertThat(recibido.getAllRecipients()[0].toString()).isEqualTo("cliente@test.com");
+		assertThat(recibido.getSubject()).contains("#" + ticket.getId());
+
+		// El registro del envío se hace justo después de entregar el mensaje
+		long limite = System.currentTimeMillis() + 5000;
+		while (!todosEnviados() && System.currentTimeMillis() < limite) {
+			Thread.sleep(50);
+		}
+		assertThat(outboxRepository.findAll())
+				.extracting(EmailOutboxEntity::getEstado)
+				.containsOnly(EmailOutboxEntity.Estado.ENVIADO);
+	}
+
+	private boolean todosEnviados() {
+		return outboxRepository.findAll().stream()
+				.allMatch(email -> email.getEstado() == EmailOutboxEntity.Estado.ENVIADO);
+	}
+}
@@ -0,0 +1,70 @@
+package com.example.java.proyect.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.ServerSetupTest;
+
+import jakarta.mail.MessagingException;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.MimeMessage;
+
+class EmailServiceTest {
+
+	@RegisterExtension
+	static GreenMailExtension smtp = new GreenMailExtension(ServerSetupTest.SMTP.dynamicPort()); // Aparte del 3025 de los contextos de Spring
+
+	// Conexiones SMTP que abrió de verdad JavaMailSenderImpl (handshake con GreenMail)
+	private final AtomicInteger conexionesSmtp = new AtomicInteger();
+
+	private final EmailService emailService = new EmailService();
+
+	@BeforeEach
+	void conectarAGreenMail() {
+		JavaMailSenderImpl mailSender = new JavaMailSenderImpl() {
+			@Override
+			protected Transport connectTransport() throws MessagingException {
+				Transport transport = super.connectTransport();
+				conexionesSmtp.incrementAndGet();
+				return transport;
+			}
+		};
+		mailSender.setHost("localhost");
+		mailSender.setPort(smtp.getSmtp().getPort());
+		ReflectionTestUtils.setField(emailService, "mailSender", mailSender);
+	}
+
+	@Test
+	void enviarLoteUsaUnaSolaConexion() throws Exception {
+		Map<MimeMessage, Exception> fallidos = emailService.enviarLote(mensajes(20));
+
+		assertThat(fallidos).isEmpty();
+		assertThat(smtp.getReceivedMessages()).hasSize(20);
+		assertThat(conexionesSmtp).hasValue(1);
+
+		// Otro lote, otra conexión
+		emailService.enviarLote(mensajes(5));
+		assertThat(conexionesSmtp).hasValue(2);
+		assertThat(emailService.getEstadisticas().getLotes()).isEqualTo(2);
+		assertThat(emailService.getEstadisticas().getMensajesEnviados()).isEqualTo(25);
+	}
+
+	private List<MimeMessage> mensajes(int cantidad) throws MessagingException {
+		List<MimeMessage> mensajes = new ArrayList<>();
+		for (int i = 0; i < cantidad; i++) {
+			mensajes.add(emailService.crearMensajeHtml("cliente" + i + "@test.com", "Ticket #" + i, "<p>hola</p>"));
+		}
+		return mensajes;
+	}
+}
@@ -0,0 +1,30 @@
+package com.example.java.proyect.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class LoginRateLimiterTest {
+
+	private final LoginRateLimiter limiter = new LoginRateLimiter(3, 3, 2, 2, new SimpleMeterRegistry());
+
+	@Test
+	void limitaPorEmailSinImportarMayusculas() {
+		assertThat(limiter.permitir("10.0.0.1", "ana@test.com")).isTrue();
+		assertThat(limiter.permitir("10.0.0.2", "ANA@test.com")).isTrue();
+		assertThat(limiter.permitir("10.0.0.3", "ana@test.com")).isFalse();
+
+		// Otra cuenta no se ve afectada
+		assertThat(limiter.permitir("10.0.0.4", "beto@test.com")).isTrue();
+	}
+
+	@Test
+	void limitaPorIpAunqueCambieElEmail() {
+		assertThat(limiter.permitir("10.0.0.9", "a@test.com")).isTrue();
+		assertThat(limiter.permitir("10.0.0.9", "b@test.com")).isTrue();
+		assertThat(limiter.permitir("10.0.0.9", "c@test.com")).isTrue();
+		assertThat(limiter.permitir("10.0.0.9", "d@test.com")).isFalse();
+	}
+}
@@ -0,0 +1,53 @@
+package com.example.java.proyect.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class PasswordHashingServiceTest {
+
+	@Test
+	void rechazaCuandoElPoolYLaColaEstanLlenos() throws Exception {
+		CountDownLatch liberar = new CountDownLatch(1);
+		BCryptPasswordEncoder lento = mock(BCryptPasswordEncoder.class);
+		when(lento.matches(anyString(), anyString())).thenAnswer(invocacion -> liberar.await(5, TimeUnit.SECONDS));
+		PasswordHashingService hashing = new PasswordHashingService(lento, 1, 1, new SimpleMeterRegistry());
+
+		// Uno trabajando y uno en cola: el tercero no entra
+		CompletableFuture<Boolean> enCurso = CompletableFuture.supplyAsync(() -> hashing.verificar("a", "h"));
+		CompletableFuture<Boolean> enCola = CompletableFuture.supplyAsync(() -> hashing.verificar("b", "h"));
+		Thread.sleep(200);
+
+		assertThatThrownBy(() -> hashing.verificar("c", "h")).isInstanceOf(HashingSaturadoException.class);
+
+		liberar.countDown();
+		assertThat(enCurso.get(5, TimeUnit.SECONDS)).isTrue();
+		assertThat(enCola.get(5, TimeUnit.SECONDS)).isTrue();
+		hashing.cerrar();
+	}
+
+	@Test
+	void reCifraLosHashesDeFuerzaMenor() throws Exception {
+		PasswordHashingService hashing = new PasswordHashingService(new BCryptPasswordEncoder(5), 1, 4, new SimpleMeterRegistry());
+		String hashViejo = new BCryptPasswordEncoder(4).encode("secreta");
+
+		String hashNuevo = hashing.recifrarSiCorresponde("secreta", hashViejo).get(5, TimeUnit.SECONDS).orElseThrow();
+		assertThat(hashNuevo).startsWith("$2a$05$");
+		assertThat(hashing.verificar("secreta", hashNuevo)).isTrue();
+
+		// Un hash que ya tiene la fuerza actual no se toca
+		assertThat(hashing.recifrarSiCorresponde("secreta", hashNuevo).get(5, TimeUnit.SECONDS)).isEmpty();
+		hashing.cerrar();
+	}
+}
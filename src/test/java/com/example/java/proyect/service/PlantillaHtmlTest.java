@@ -0,0 +1,46 @@
+package com.example.java.proyect.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.junit.jupiter.api.Test;
+
+class PlantillaHtmlTest {
+
+	@Test
+	void escapaLosHuecosDoblesYCopiaLosTriples() {
+		PlantillaHtml plantilla = PlantillaHtml.compilar("<p>{{texto}}</p>{{{html}}}<b>{{texto}}</b>", "html", "texto");
+
+		StringBuilder destino = new StringBuilder();
+		plantilla.render(destino, "<i>ok</i>", "<script>'a' & \"b\"</script>");
+
+		assertThat(destino.toString()).isEqualTo(
+				"<p>&lt;script&gt;&#39;a&#39; &amp; &quot;b&quot;&lt;/script&gt;</p><i>ok</i>"
+				+ "<b>&lt;script&gt;&#39;a&#39; &amp; &quot;b&quot;&lt;/script&gt;</b>");
+	}
+
+	@Test
+	void renderSinBufferDevuelveLoMismo() {
+		PlantillaHtml plantilla = PlantillaHtml.compilar("<p>{{texto}}</p>{{{html}}}", "html", "texto");
+
+		StringBuilder destino = new StringBuilder();
+		plantilla.render(destino, "<i>ok</i>", "a & b");
+
+		assertThat(plantilla.render("<i>ok</i>", "a & b")).isEqualTo(destino.toString()).isEqualTo("<p>a &amp; b</p><i>ok</i>");
+	}
+
+	@Test
+	void losValoresNullQuedanVacios() {
+		StringBuilder destino = new StringBuilder();
+		PlantillaHtml.compilar("a{{x}}b", "x").render(destino, (String) null);
+
+		assertThat(destino.toString()).isEqualTo("ab");
+	}
+
+	@Test
+	void rechazaHuecosNoDeclarados() {
+		assertThatThrownBy(() -> PlantillaHtml.compilar("{{otro}}", "x"))
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessageContaining("otro");
+	}
+}
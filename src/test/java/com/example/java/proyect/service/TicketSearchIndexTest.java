@@ -0,0 +1,57 @@
+package com.example.java.proyect.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.example.java.proyect.TicketRepository;
+import com.example.java.proyect.models.requests.TicketModel;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+
+class TicketSearchIndexTest {
+
+	private final TicketRepository ticketRepository = mock(TicketRepository.class);
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+	private TicketSearchIndex indice;
+
+	@AfterEach
+	void cerrar() throws Exception {
+		indice.cerrar();
+	}
+
+	@Test
+	void siFallaArmarElIndiceSeReintentaSolo() throws Exception {
+		TicketModel ticket = new TicketModel();
+		ticket.setId(7L);
+		ticket.setDescripcionProblema("No enciende la pantalla");
+		when(ticketRepository.streamTodos())
+				.thenThrow(new DataAccessResourceFailureException("La base no responde"))
+				.thenReturn(Stream.of(ticket));
+
+		indice = new TicketSearchIndex(ticketRepository, mock(EntityManager.class),
+				mock(PlatformTransactionManager.class), meterRegistry);
+		ReflectionTestUtils.setField(indice, "reintentoBaseMs", 50L);
+		ReflectionTestUtils.setField(indice, "reintentoMaxMs", 50L);
+		indice.inicializar();
+
+		long limite = System.currentTimeMillis() + 3000;
+		while (!indice.listo() && System.currentTimeMillis() < limite) {
+			Thread.sleep(20);
+		}
+
+		assertThat(indice.listo()).isTrue();
+		assertThat(indice.buscar("pantalla", null, null, null, null, 10)).containsExactly(7L);
+		assertThat(meterRegistry.get("tickets.indice.reconstrucciones.fallidas").counter().count()).isEqualTo(1);
+		assertThat(meterRegistry.get("tickets.indice.listo").gauge().value()).isEqualTo(1);
+	}
+}
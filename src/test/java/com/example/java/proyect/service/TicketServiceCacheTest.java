@@ -0,0 +1,132 @@
+package com.example.java.proyect.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+
+import com.example.java.proyect.TicketRepository;
+import com.example.java.proyect.config.CacheConfig;
+import com.example.java.proyect.models.requests.TicketModel;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.Cache;
+import jakarta.persistence.EntityManagerFactory;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class TicketServiceCacheTest {
+
+	@MockitoSpyBean
+	private TicketRepository ticketRepository;
+
+	@Autowired
+	private TicketService ticketService;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Autowired
+	private CacheManager cacheManager;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Autowired
+	private TicketSearchIndex ticketSearchIndex;
+
+	private TicketModel ticketAna;
+	private TicketModel ticketBeto;
+
+	@BeforeEach
+	void cargarTickets() {
+		ticketRepository.deleteAll();
+		cacheManager.getCache(CacheConfig.TICKETS_POR_CLIENTE).clear();
+		ticketAna = ticketService.crearTicket(ticket("Ana@Test.com"));
+		ticketBeto = ticketService.crearTicket(ticket("beto@test.com"));
+		clearInvocations(ticketRepository);
+	}
+
+	@Test
+	void lecturasRepetidasNoVanALaBase() {
+		for (int i = 0; i < 100; i++) {
+			assertThat(ticketService.listarPorCliente(i % 2 == 0 ? "ana@test.com" : " ANA@test.com ")).hasSize(1);
+		}
+
+		verify(ticketRepository, times(1)).findByClienteEmailNormalizado(anyString());
+		assertThat(meterRegistry.get("cache.gets").tag("cache", "ticketsPorCliente").tag("result", "hit")
+				.functionCounter().count()).isGreaterThanOrEqualTo(99);
+	}
+
+	@Test
+	void cadaEscrituraInvalidaSoloAlClienteAfectado() {
+		ticketService.listarPorCliente("ana@test.com");
+		ticketService.listarPorCliente("beto@test.com");
+
+		// ✏️ Actualizar un ticket de Ana: su lista se vuelve a leer, la de Beto no
+		TicketModel cambios = new TicketModel();
+		cambios.setEstado("listo");
+		ticketService.actualizarTicket(ticketAna.getId(), cambios);
+
+		assertThat(ticketService.listarPorCliente("ana@test.com")).extracting(TicketModel::getEstado).containsExactly("listo");
+		ticketService.listarPorCliente("beto@test.com");
+		verify(ticketRepository, times(3)).findByClienteEmailNormalizado(anyString());
+
+		// ➕ Alta, 🔔 notificación y ❌ baja también invalidan
+		TicketModel nuevo = ticketService.crearTicket(ticket("ana@test.com"));
+		assertThat(ticketService.listarPorCliente("ana@test.com")).hasSize(2);
+
+		ticketService.activarNotificacion(nuevo.getId());
+		assertThat(ticketService.listarPorCliente("ana@test.com"))
+				.filteredOn(t -> t.getId().equals(nuevo.getId()))
+				.extracting(TicketModel::getNotificarCliente).containsExactly(true);
+
+		ticketService.eliminarTicket(nuevo.getId());
+		assertThat(ticketService.listarPorCliente("ana@test.com")).hasSize(1);
+	}
+
+	@Test
+	void losUpdateDirectosNoVacianLaCacheDeSegundoNivel() throws Exception {
+		Cache segundoNivel = entityManagerFactory.getCache();
+		assertThat(segundoNivel.contains(TicketModel.class, ticketAna.getId())).isTrue();
+		assertThat(segundoNivel.contains(TicketModel.class, ticketBeto.getId())).isTrue();
+
+		// 🔁 Estado masivo: el índice relee el de Ana de la base sin volver a meterlo en la caché
+		ticketService.actualizarEstadoMasivo(List.of(ticketAna.getId()), "listo");
+		long limite = System.currentTimeMillis() + 3000;
+		while (!ticketSearchIndex.buscar(null, "listo", null, null, null, 10).contains(ticketAna.getId())
+				&& System.currentTimeMillis() < limite) {
+			Thread.sleep(20);
+		}
+		assertThat(segundoNivel.contains(TicketModel.class, ticketAna.getId())).isFalse();
+		assertThat(segundoNivel.contains(TicketModel.class, ticketBeto.getId())).isTrue();
+		TicketModel ana = ticketService.obtenerPorId(ticketAna.getId()).orElseThrow();
+		assertThat(ana.getEstado()).isEqualTo("listo");
+
+		// 🩹 PATCH por el camino rápido
+		TicketModel cambios = new TicketModel();
+		cambios.setSolucion("Cambio de pantalla");
+		cambios.setVersion(ana.getVersion());
+		ticketService.parchearTicket(ticketAna.getId(), cambios);
+		assertThat(segundoNivel.contains(TicketModel.class, ticketBeto.getId())).isTrue();
+		assertThat(ticketService.obtenerPorId(ticketAna.getId()).orElseThrow().getSolucion()).isEqualTo("Cambio de pantalla");
+	}
+
+	private static TicketModel ticket(String email) {
+		TicketModel ticket = new TicketModel();
+		ticket.setClienteEmail(email);
+		ticket.setEstado("pendiente");
+		return ticket;
+	}
+}
@@ -0,0 +1,78 @@
+package com.example.java.proyect.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.Instant;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.example.java.proyect.TicketTransicionRepository;
+import com.example.java.proyect.entities.TicketTransicionEntity;
+import com.example.java.proyect.models.responses.TicketSlaRest;
+import com.example.java.proyect.share.dto.TransicionDuracion;
+
+class TicketSlaStatsTest {
+
+	private final TicketTransicionRepository transicionRepository = mock(TicketTransicionRepository.class);
+	private final TicketSlaStats stats = new TicketSlaStats(transicionRepository, 600_000);
+
+	@Test
+	void lasLecturasNuevasSumanSoloLoQueNoSeContoAntes() {
+		Instant ahora = Instant.now();
+		TransicionDuracion vieja = fila(1L, ahora.minusSeconds(3600));
+		TransicionDuracion reciente = fila(2L, ahora.minusSeconds(30));
+
+		when(transicionRepository.streamDuracionesDesde(any())).thenReturn(Stream.of(vieja, reciente));
+		stats.inicializar();
+		assertThat(cantidad()).isEqualTo(2);
+
+		// Un cambio de esta réplica llega como evento...
+		TicketTransicionEntity local = new TicketTransicionEntity(1L, "pendiente", "listo", ahora, "admin", "alta", 60L);
+		ReflectionTestUtils.setField(local, "id", 3L);
+		stats.registrar(local);
+
+		// ...y la lectura siguiente lo vuelve a ver (margen) junto con uno de otra réplica: solo suma ese
+		when(transicionRepository.streamDuracionesDesde(any()))
+				.thenReturn(Stream.of(reciente, fila(3L, ahora), fila(4L, ahora.plusSeconds(1))));
+		stats.leerNuevas();
+		assertThat(cantidad()).isEqualTo(4);
+	}
+
+	private long cantidad() {
+		return stats.resumen(12).stream().mapToLong(TicketSlaRest::getCantidad).sum();
+	}
+
+	private static TransicionDuracion fila(Long id, Instant instante) {
+		return new TransicionDuracion() {
+			@Override
+			public Long getId() {
+				return id;
+			}
+
+			@Override
+			public Instant getInstante() {
+				return instante;
+			}
+
+			@Override
+			public String getPrioridad() {
+				return "alta";
+			}
+
+			@Override
+			public String getDesde() {
+				return "pendiente";
+			}
+
+			@Override
+			public Long getSegundosEnEstado() {
+				return 60L;
+			}
+		};
+	}
+}
@@ -0,0 +1,75 @@
+package com.example.java.proyect.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.java.proyect.TicketRepository;
+import com.example.java.proyect.share.dto.EstadoConteo;
+
+class TicketStatsCacheTest {
+
+	private final TicketRepository ticketRepository = mock(TicketRepository.class);
+	private final TicketStatsCache cache = new TicketStatsCache(ticketRepository, new TicketCambios());
+
+	@Test
+	void aplicaDeltasYReconciliaDesdeLaBase() {
+		LocalDate hoy = LocalDate.now();
+
+		cache.aplicar(new TicketStatsCache.Delta().alta("Pendiente", hoy).alta("pendiente", hoy));
+		cache.aplicar(new TicketStatsCache.Delta().cambioEstado("pendiente", "En reparación"));
+		cache.aplicar(new TicketStatsCache.Delta().baja("pendiente", hoy));
+
+		assertThat(cache.conteoPorEstado())
+				.containsEntry("pendiente", 0L)
+				.containsEntry("en reparación", 1L);
+		assertThat(cache.conteoMes(YearMonth.from(hoy))).isEqualTo(1L);
+
+		// La reconciliación deja los contadores como dice la base
+		when(ticketRepository.contarPorEstado()).thenReturn(List.of(conteo("listo", 5L)));
+		when(ticketRepository.contarPorMes(any(), any())).thenReturn(List.of());
+		cache.reconciliar();
+
+		assertThat(cache.conteoPorEstado())
+				.containsEntry("listo", 5L)
+				.containsEntry("pendiente", 0L)
+				.containsEntry("en reparación", 0L);
+		assertThat(cache.conteoMes(YearMonth.from(hoy))).isZero();
+	}
+
+	@Test
+	void losDeltasQueLleganDuranteLaReconciliacionNoSePierden() {
+		when(ticketRepository.contarPorEstado()).thenAnswer(invocacion -> {
+			// Un commit que la consulta ya no ve se aplica mientras corre
+			cache.aplicar(new TicketStatsCache.Delta().alta("pendiente", LocalDate.now()));
+			return List.of(conteo("listo", 2L));
+		});
+		when(ticketRepository.contarPorMes(any(), any())).thenReturn(List.of());
+		cache.reconciliar();
+
+		assertThat(cache.conteoPorEstado())
+				.containsEntry("listo", 2L)
+				.containsEntry("pendiente", 1L);
+	}
+
+	private static EstadoConteo conteo(String estado, Long total) {
+		return new EstadoConteo() {
+			@Override
+			public String getEstado() {
+				return estado;
+			}
+
+			@Override
+			public Long getTotal() {
+				return total;
+			}
+		};
+	}
+}